@@ -1,5 +1,7 @@
 package group.seven.enums;
 
+import java.util.SplittableRandom;
+
 import static group.seven.enums.Cardinal.*;
 
 /**
@@ -32,11 +34,11 @@ public enum Action {
      * @param cardinal the cardinal
      * @return the direction
      */
-    public Action getDirection(Cardinal cardinal) {
+    public Action getDirection(Cardinal cardinal, SplittableRandom random) {
         if (direction == cardinal)
             return this;
         else {
-            return Action.values()[(int) (Math.random() * 6)];
+            return Action.values()[random.nextInt(6)];
         }
     }
 
@@ -3,7 +3,7 @@ package group.seven.enums;
 import group.seven.logic.geometric.XY;
 import javafx.geometry.Point2D;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import static group.seven.enums.Action.*;
 
@@ -25,7 +25,6 @@ public enum Cardinal {
      * Cardinal value in both the x and y directions
      */
     public final XY unitVector;
-    private static final Random rand = new Random();
 
     Cardinal(XY unitVector) {
         this.unitVector = unitVector;
@@ -35,10 +34,11 @@ public enum Cardinal {
      * Returns a random Cardinal direction of the 4 types
      * NOWHERE is excluded
      *
+     * @param random random stream to draw from
      * @return a random cardinal direction
      */
-    public static Cardinal randomDirection() {
-        return Cardinal.values()[rand.nextInt(4)];
+    public static Cardinal randomDirection(SplittableRandom random) {
+        return Cardinal.values()[random.nextInt(4)];
     }
 
     /**
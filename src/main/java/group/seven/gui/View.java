@@ -1,7 +1,7 @@
 package group.seven.gui;
 
+import group.seven.enums.TileType;
 import group.seven.model.environment.Scenario;
-import group.seven.model.environment.Tile;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.ScrollPane;
@@ -83,12 +83,12 @@ public class View extends ScrollPane {
     private void drawMap() {
         for (int y = 0; y < MAP_HEIGHT; y++) {
             for (int x = 0; x < MAP_WIDTH; x++) {
-                Tile tile = s.TILE_MAP.map[x][y];
+                TileType type = s.TILE_MAP.getType(x, y);
 
                 //TODO: change exploration colors for guards and intruders just for fun
-                if (tile.getExploredGuard()) g.setFill(tile.getType().getColor());
-                else if (tile.getExploredIntruder()) g.setFill(tile.getType().getColor());
-                else g.setFill(tile.getType().getColor().darker().desaturate());
+                if (s.TILE_MAP.isExploredByGuard(x, y)) g.setFill(type.getColor());
+                else if (s.TILE_MAP.isExploredByIntruder(x, y)) g.setFill(type.getColor());
+                else g.setFill(type.getColor().darker().desaturate());
 
 //                if (!tile.getExploredGuard() || !tile.getExploredIntruder()) g.setFill(tile.getType() == WALL ? Color.gray(0.4) : tile.getType().getColor().darker().desaturate());
 //                else g.setFill(tile.getType().getColor());
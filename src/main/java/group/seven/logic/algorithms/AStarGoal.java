@@ -1,22 +1,25 @@
 package group.seven.logic.algorithms;
 
 import group.seven.enums.AlgorithmType;
+import group.seven.logic.geometric.Cells;
 import group.seven.logic.geometric.Pythagoras;
 import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Intruder;
 import group.seven.model.agents.Move;
-import group.seven.model.environment.TileNode;
+import group.seven.model.environment.Frontier;
+import group.seven.model.environment.KnowledgeMap;
 import group.seven.utils.Methods;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import static group.seven.enums.Action.NOTHING;
 import static group.seven.enums.AlgorithmType.A_STAR;
 import static group.seven.enums.TileType.PORTAL;
-import static group.seven.enums.TileType.WALL;
 
 public class AStarGoal implements Algorithm {
 
@@ -29,105 +32,59 @@ public class AStarGoal implements Algorithm {
     private AStarNode target;
     private final Intruder player;
     List<Move> movesLeft;
-    List<AStarNode> open;
-    List<AStarNode> closed;
-    int[][] additions = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
-    int wallPenalization = 2;
+    //cell ids of the tiles that were targets already
+    BitSet closed = new BitSet();
 
 
     public AStarGoal(Intruder player) {
         this.initialX = player.globalSpawn.x();
         this.initialY = player.globalSpawn.y();
-        open = new ArrayList<>();
-        closed = new ArrayList<>();
         movesLeft = new ArrayList<>();
         //this.map = scenario.TILE_MAP.getMap();
         current = new AStarNode(player.getXY(), this);
-        open.add(current);
         this.player = player;
         //playerMap[initialX][initialY]=new TileNode(map[initialX][initialY],player);
     }
 
 
-    public void updateOpen() {
-//        List<AStarNode> toBeRemoved = new ArrayList<>();
-        Set<AStarNode> toBeRemoved = new HashSet<>();
-        for (AStarNode node : open) {
-            List<AStarNode> neighbours = neighbours(node);
-            int count = 0;
-            for (AStarNode neighbour : neighbours) {
-                if (player.getMap()[neighbour.getX()][neighbour.getY()] != null) {
-                    count++;
-                }
-            }
-            if (count >= 4) {
-                toBeRemoved.add(node);
-            }
-        }
-        open.removeIf(toBeRemoved::contains);
-        closed.addAll(toBeRemoved);
-    }
-
-    public List<AStarNode> neighbours(AStarNode node) {
-        int x = node.getX();
-        int y = node.getY();
-        List<AStarNode> neighbours = new ArrayList<>();
-        for (int i = 0; i < 4; i++) {
-            AStarNode neighbor = new AStarNode(new XY(x + additions[i][0], y + additions[i][1]), this);
-            if (!outOfBounds(neighbor.getX(), neighbor.getY()) && player.getMap()[neighbor.getX()][neighbor.getY()] != null) {
-                neighbours.add(neighbor);
-            }
-        }
-        return neighbours;
-    }
-
-    public boolean outOfBounds(int x, int y) {
-        return x < 0 || x >= player.getMap().length || y < 0 || y >= player.getMap()[0].length;
-    }
-
+    /**
+     * Picks the next tile to head for: the tile of the frontier of the intruder's map (see {@link Frontier}) closest
+     * to the current target and most in the direction of the goal. Tiles that were picked before are skipped
+     *
+     * @return the next target, null if no tile of the frontier is left
+     */
     public AStarNode findTarget() {
-        updateOpen();
-        open.remove(current);
-        if (!closed.contains(current))
-            closed.add(current);
-
-        for (TileNode[] grids : player.getMap()) {
-            for (TileNode grid : grids) {
-                if (grid == null)
-                    continue;
-                AStarNode node = new AStarNode(new XY(grid.getX(), grid.getY()), this);
-                if (grid.getType() == WALL) {
-                    node.setfCost(node.getfCost() * wallPenalization);
-                    for (AStarNode neighbor : neighbours(node)) {
-                        neighbor.setfCost(neighbor.getfCost() * wallPenalization);
-                    }
-                }
-                if (open.contains(node) || closed.contains(node) || (player.getIgnorePortal() && grid.getType() == PORTAL)) {
-                    continue;
-                }
-                open.add(node);
-            }
-        }
-        updateOpen();
-        int lowestValue = Integer.MAX_VALUE;
-        AStarNode currentTarget = null;
-        for (AStarNode node : open) {
-            node.updateCost();
-            if (node.getfCost() < lowestValue) {
-                currentTarget = node;
-                lowestValue = node.getfCost();
-            } else if (node.getfCost() == lowestValue) {
-                if (node.gethCost() < current.gethCost()) {
-                    lowestValue = node.getfCost();
-                    currentTarget = node;
-                }
+        KnowledgeMap map = player.getKnowledgeMap();
+        int width = map.getWidth();
+        closed.set(Cells.id(current.getX(), current.getY(), width));
+
+        player.updateOrientationToGoal();
+        double angleToGoal = player.getAngleToGoal();
+        int best = Cells.NONE, bestH = 0, bestR = 0, bestF = Integer.MAX_VALUE;
+        for (int cell : map.getFrontier().toArray()) {
+            if (closed.get(cell))
+                continue;
+            int x = Cells.x(cell, width), y = Cells.y(cell, width);
+            if (player.getIgnorePortal() && map.getType(x, y) == PORTAL)
+                continue;
+            int h = Math.abs(current.getX() - x) + Math.abs(current.getY() - y);
+            int r = rCost(x, y, angleToGoal);
+            if (h + r < bestF || h + r == bestF && h < bestH) {
+                best = cell;
+                bestH = h;
+                bestR = r;
+                bestF = h + r;
             }
         }
-        if (currentTarget != null) {
-            open.remove(currentTarget);
-            closed.add(currentTarget);
-        }
-        return currentTarget;
+        if (best == Cells.NONE)
+            return null;
+
+        closed.set(best);
+        AStarNode node = new AStarNode(Cells.toXY(best, width), this);
+        node.hCost = bestH;
+        node.rCost = bestR;
+        node.fCost = bestF;
+        return node;
     }
 
 
@@ -141,6 +98,15 @@ public class AStarGoal implements Algorithm {
     }
 
 
+    //same as rCost(XY), with the angle to the goal computed once for all the tested tiles
+    private int rCost(int x, int y, double angleAgentToGoal) {
+        double r = Math.abs(angleAgentToGoal - Pythagoras.angleFromAgentToTarget(x, y, player.getX(), player.getY()));
+        if (r > 180) {
+            r = 360 - r;
+        }
+        return (int) Math.round(r / 180 * 50);
+    }
+
     public int rCost(XY xy) { //xy = current frontier node tested
         player.updateOrientationToGoal();
 
@@ -195,6 +161,51 @@ public class AStarGoal implements Algorithm {
         return A_STAR;
     }
 
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        Algorithm.writeMoves(out, movesLeft);
+        writeNode(out, current);
+        writeNode(out, target);
+        out.writeInt(closed.cardinality());
+        for (int cell = closed.nextSetBit(0); cell >= 0; cell = closed.nextSetBit(cell + 1))
+            out.writeInt(cell);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        movesLeft = new ArrayList<>();
+        Algorithm.readMoves(in, player, movesLeft);
+        current = readNode(in);
+        target = readNode(in);
+        closed.clear();
+        for (int i = in.readInt(); i > 0; i--)
+            closed.set(in.readInt());
+    }
+
+    //the parents are left out, they are only used while a path is being searched
+    private void writeNode(DataOutput out, AStarNode node) throws IOException {
+        out.writeBoolean(node != null);
+        if (node == null)
+            return;
+        out.writeInt(node.getX());
+        out.writeInt(node.getY());
+        out.writeInt(node.gCost);
+        out.writeInt(node.fCost);
+        out.writeInt(node.hCost);
+        out.writeInt(node.rCost);
+    }
+
+    private AStarNode readNode(DataInput in) throws IOException {
+        if (!in.readBoolean())
+            return null;
+        AStarNode node = new AStarNode(new XY(in.readInt(), in.readInt()), this);
+        node.gCost = in.readInt();
+        node.fCost = in.readInt();
+        node.hCost = in.readInt();
+        node.rCost = in.readInt();
+        return node;
+    }
+
 
     public class AStarNode {
         private final XY coordinate;
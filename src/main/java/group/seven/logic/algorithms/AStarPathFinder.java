@@ -2,10 +2,11 @@ package group.seven.logic.algorithms;
 
 import group.seven.enums.Action;
 import group.seven.enums.Cardinal;
+import group.seven.logic.geometric.Cells;
 import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
 import group.seven.model.agents.Move;
-import group.seven.model.environment.TileNode;
+import group.seven.model.environment.KnowledgeMap;
 
 import java.util.*;
 
@@ -13,111 +14,107 @@ import static group.seven.enums.TileType.WALL;
 
 public class AStarPathFinder {
 
-    //public static int instances = 0;
+    //east, west, south, north: the order neighbours are opened in decides between paths of the same cost
+    private static final int[][] ADDITIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
 
-    private final AStarNode currentNode;
-
-    private AStarNode target;
     private final Agent player;
-    int[][] additions = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}}; //TODO: maybe remove
-    List<Move> movesLeft; // moves left to do //TODO: maybe remove
-    List<AStarNode> open;//TODO: maybe remove
-    List<AStarNode> closed; //TODO: maybe remove
-    private TileNode[][] internalMap; // agent representation
+    private final int goalX, goalY;
+    private KnowledgeMap internalMap; // agent representation
+    //cost and parent of the cells reached, reused from the agent's earlier searches
+    private SearchCells reached;
+    private int width;
 
     public AStarPathFinder(Agent player, XY goal) {
-        //instances++;
-        //System.out.print("\r number: " + instances + " from: " + player.getType());
-        this.target = new AStarNode(goal, this);
-        open = new ArrayList<>();
-        closed = new ArrayList<>();
-        movesLeft = new ArrayList<>();
-        currentNode = new AStarNode(player.getXY(), this);
-        open.add(currentNode); //TODO: maybe remove
         this.player = player;
-        this.internalMap = player.getMap();
-        //internalMap.add(new TileNode(new Tile(startCoordinate.x(), startCoordinate.y())));
+        this.internalMap = player.getKnowledgeMap();
+        goalX = goal.x();
+        goalY = goal.y();
     }
 
-    public List<Move> findPath() {
-        internalMap = player.getMap();
-        LinkedList<AStarNode> openedNodes = new LinkedList<>();
-        List<AStarNode> closedNodes = new LinkedList<>();
-        openedNodes.add(currentNode);
-        currentNode.updateCost();
-
-        while (!openedNodes.isEmpty()) {
-//            AStarNode node = openedNodes.get(0);
-            AStarNode node = openedNodes.getFirst();
-            for (int i = 1; i < openedNodes.size(); i++) {
-                AStarNode ith = openedNodes.get(i);
-                if (ith.getfCost() < node.getfCost()) {
-                    node = ith;
-                } else if (ith.getfCost() == node.getfCost()) {
-                    if (ith.gethCost() < node.gethCost())
-                        node = ith;
-                }
-
-//                if (openedNodes.get(i).getfCost() < node.getfCost()) {
-//                    node = openedNodes.get(i);
-//                } else if (openedNodes.get(i).getfCost() == node.getfCost()) {
-//                    if (openedNodes.get(i).gethCost() < node.gethCost()) {
-//                        node = openedNodes.get(i);
-//                    }
-//                }
-            }
-            openedNodes.remove(node);
-            //System.out.println("agent"+player.getType());
-            closedNodes.add(node);
-            //System.out.println("OPEN "+Arrays.toString(openedNodes.toArray()));
-
+    /**
+     * @param goalCell cell id of the goal on the agent's knowledge map, see {@link Cells}
+     */
+    public AStarPathFinder(Agent player, int goalCell) {
+        this(player, Cells.toXY(goalCell, player.getKnowledgeMap().getWidth()));
+    }
 
-            if (node.equals(target)) {
-                target = node;
-                return makePath();
-            }
-            for (AStarNode neighbor : neighbours(node)) {
-                if (closedNodes.contains(neighbor) || internalMap[neighbor.getX()][neighbor.getY()] == null || internalMap[neighbor.getX()][neighbor.getY()].getType() == WALL) {
+    /**
+     * Searches the discovered tiles that are not walls for a path from the agent to the goal. The open cell with
+     * the lowest f = g + h is expanded first, on ties the one with the lowest h and then the one opened first.
+     * A cell keeps the cost and parent it was opened with.
+     *
+     * @return the moves along the path, empty if there is none
+     */
+    public List<Move> findPath() {
+        internalMap = player.getKnowledgeMap();
+        width = internalMap.getWidth();
+        reached = player.getSearchCells();
+        reached.reset(width * internalMap.getHeight());
+        int goal = internalMap.isInBounds(goalX, goalY) ? internalMap.cellId(goalX, goalY) : Cells.NONE;
+        int start = internalMap.cellId(player.getX(), player.getY());
+
+        OpenList open = new OpenList();
+        reached.reach(start, 0, Cells.NONE);
+        open.push(start);
+        int[] neighbours = new int[4];
+        while (open.size > 0) {
+            int cell = open.pop();
+            int g = reached.cost(cell);
+            if (cell == goal)
+                return makePath(start, goal);
+
+            for (int i = 0, count = neighbours(cell, neighbours); i < count; i++) {
+                int neighbour = neighbours[i];
+                if (reached.isReached(neighbour) || internalMap.getType(neighbour) == WALL)
                     continue;
-                }
-                //                neighbor.updateCost(ASTAR_PATH);
-                int lowestCost = node.getgCost() + Math.abs(node.getX() - neighbor.getX()) + Math.abs(node.getY() - neighbor.getY());
-                if (lowestCost < neighbor.getgCost() || !openedNodes.contains(neighbor)) {
-                    neighbor.updateHCost();
-                    neighbor.setgCost(lowestCost);
-                    neighbor.updateFCost();
-                    neighbor.setParent(node);
-                    if (!openedNodes.contains(neighbor)) {
-                        openedNodes.add(neighbor);
-                    }
-                }
+                reached.reach(neighbour, g + 1, cell);
+                open.push(neighbour);
             }
         }
-        return makePath();
+        return new ArrayList<>();
     }
 
-    public List<AStarNode> neighbours(AStarNode node) {
-        int x = node.getX();
-        int y = node.getY();
-        List<AStarNode> neighbours = new ArrayList<>();
-        for (int i = 0; i < 4; i++) {
-            AStarNode neighbor = new AStarNode(new XY(x + additions[i][0], y + additions[i][1]), this);
-            if (!outOfBounds(neighbor.getX(), neighbor.getY()) && internalMap[neighbor.getX()][neighbor.getY()] != null) {
-                if (!neighbours.contains(neighbor))
-                    neighbours.add(neighbor);
-
-            }
-        }
-        return neighbours;
+    /**
+     * Writes the cell ids of the discovered cells next to the cell to out, see {@link Cells}
+     *
+     * @param out array of at least 4 cells
+     * @return the number of cells written
+     */
+    public int neighbours(int cell, int[] out) {
+        int width = internalMap.getWidth();
+        int x = Cells.x(cell, width), y = Cells.y(cell, width);
+        int count = 0;
+        for (int[] addition : ADDITIONS) {
+            int nx = x + addition[0], ny = y + addition[1];
+            if (!outOfBounds(nx, ny) && internalMap.isKnown(nx, ny))
+                out[count++] = Cells.id(nx, ny, width);
+        }
+        return count;
     }
 
     public boolean outOfBounds(int x, int y) {
-        return x < 0 || x >= internalMap.length || y < 0 || y >= internalMap[0].length;
+        return !internalMap.isInBounds(x, y);
     }
 
-    // convert path of nodes into path of actions and then convert it into path of moves
-    public List<Move> makePath() {
-        List<Action> actionPath = actionsPath(nodePath()); //convert from path of nodes to path of actions
+    //distance from the cell to the goal
+    private int hCost(int cell) {
+        return Math.abs(Cells.x(cell, width) - goalX) + Math.abs(Cells.y(cell, width) - goalY);
+    }
+
+    //the cells from the start to the goal, following the parents back
+    private int[] cellPath(int start, int goal) {
+        int length = 1;
+        for (int cell = goal; cell != start; cell = reached.parent(cell))
+            length++;
+        int[] path = new int[length];
+        for (int cell = goal, i = length - 1; i >= 0; cell = reached.parent(cell), i--)
+            path[i] = cell;
+        return path;
+    }
+
+    // convert path of cells into path of actions and then convert it into path of moves
+    private List<Move> makePath(int start, int goal) {
+        List<Action> actionPath = actionsPath(cellPath(start, goal)); //convert from path of cells to path of actions
         List<Move> path = new ArrayList<>();
         double speed = player.getSpeed();
         for (int i = 0; i < actionPath.size(); i++) {
@@ -139,15 +136,14 @@ public class AStarPathFinder {
         return path;
     }
 
-    // from path of nodes to path of actions
-    public List<Action> actionsPath(List<AStarNode> nodePath) {
-//        List<Action> actionPath = new ArrayList<>();
-        List<Action> actionPath = new LinkedList<>();
+    // from path of cells to path of actions
+    private List<Action> actionsPath(int[] cellPath) {
+        List<Action> actionPath = new ArrayList<>();
         Cardinal orientation = player.getDirection();
-        for (int i = 0; i < nodePath.size() - 1; i++) {
-            AStarNode previous = nodePath.get(i);
-            AStarNode next = nodePath.get(i + 1);
-            if (next.getX() > previous.getX() && next.getY() == previous.getY()) {
+        for (int i = 0; i < cellPath.length - 1; i++) {
+            XY previous = Cells.toXY(cellPath[i], width);
+            XY next = Cells.toXY(cellPath[i + 1], width);
+            if (next.x() > previous.x() && next.y() == previous.y()) {
                 if (orientation == Cardinal.EAST)
                     actionPath.add(Action.MOVE_FORWARD);
                 else {
@@ -155,7 +151,7 @@ public class AStarPathFinder {
                     actionPath.add(Action.MOVE_FORWARD);
                     orientation = Cardinal.EAST;
                 }
-            } else if (next.getX() < previous.getX() && next.getY() == previous.getY()) {
+            } else if (next.x() < previous.x() && next.y() == previous.y()) {
                 if (orientation == Cardinal.WEST)
                     actionPath.add(Action.MOVE_FORWARD);
                 else {
@@ -163,7 +159,7 @@ public class AStarPathFinder {
                     actionPath.add(Action.MOVE_FORWARD);
                     orientation = Cardinal.WEST;
                 }
-            } else if (next.getX() == previous.getX() && next.getY() > previous.getY()) {
+            } else if (next.x() == previous.x() && next.y() > previous.y()) {
                 if (orientation == Cardinal.SOUTH)
                     actionPath.add(Action.MOVE_FORWARD);
                 else {
@@ -171,7 +167,7 @@ public class AStarPathFinder {
                     actionPath.add(Action.MOVE_FORWARD);
                     orientation = Cardinal.SOUTH;
                 }
-            } else if (next.getX() == previous.getX() && next.getY() < previous.getY()) {
+            } else if (next.x() == previous.x() && next.y() < previous.y()) {
                 if (orientation == Cardinal.NORTH)
                     actionPath.add(Action.MOVE_FORWARD);
                 else {
@@ -184,117 +180,52 @@ public class AStarPathFinder {
         return actionPath;
     }
 
-    public List<AStarNode> nodePath() {
-        List<AStarNode> nodePath = new ArrayList<>();
-        AStarNode node = target;
-        while (node != null && !node.equals(currentNode)) {
-            nodePath.add(node);
-            node = node.getParent();
-        }
-        if (node != null)
-            nodePath.add(node);
-        Collections.reverse(nodePath);
-        return nodePath;
-    }
-
-    public int gCost(XY xy) {
-        return Math.abs(currentNode.getX() - xy.x()) + Math.abs(currentNode.getY() - xy.y());
-    }
-
-    public int hCost(XY xy) {
-        return Math.abs(target.getX() - xy.x()) + Math.abs(target.getY() - xy.y());
-    }
-
-
-    public static class AStarNode {
-        private final XY coordinate;
-        private final int rCost = Integer.MAX_VALUE;
-        private final AStarPathFinder aStarPath;
-        private int gCost = Integer.MAX_VALUE;
-        private int fCost = Integer.MAX_VALUE;
-        private int hCost = Integer.MAX_VALUE;
-        private AStarNode parent;
-
-        // TODO: if bugs, check this
-        public AStarNode(XY xy, AStarPathFinder aStarPath) {
-            this.coordinate = xy;
-            this.parent = null;
-            this.aStarPath = aStarPath;
-        }
-
-        public void updateCost() {
-            updateGCost();
-            updateHCost();
-            updateFCost();
-        }
-
-        public void updateHCost() {
-            hCost = aStarPath.hCost(this.coordinate);
-        }
-
-        public void updateGCost() {
-            gCost = aStarPath.gCost(this.coordinate);
-        }
-
-
-        public void updateFCost() {
-            fCost = gCost + hCost;
-        }
-
-        public XY getCoordinate() {
-            return coordinate;
-        }
-
-        public int getfCost() {
-            return fCost;
-        }
-
-        public double getrCost() {
-            return rCost;
-        }
-
-        public int getgCost() {
-            return gCost;
-        }
-
-        public void setgCost(int gCost) {
-            this.gCost = gCost;
-        }
-
-        public int gethCost() {
-            return hCost;
-        }
-
-        public int getX() {
-            return this.coordinate.x();
-        }
-
-        public int getY() {
-            return this.coordinate.y();
-        }
-
-        public AStarNode getParent() {
-            return parent;
-        }
-
-        public void setParent(AStarNode parent) {
-            this.parent = parent;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            AStarNode aStarNode = (AStarNode) o;
-            return Objects.equals(coordinate, aStarNode.coordinate);
+    //binary heap of the open cells, ordered by f, then h, then the order they were opened in
+    private final class OpenList {
+        private int[] cells = new int[64];
+        private int[] opened = new int[64];
+        private int size = 0;
+        private int pushed = 0;
+
+        void push(int cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, 2 * size);
+                opened = Arrays.copyOf(opened, 2 * size);
+            }
+            int i = size++;
+            for (int up = (i - 1) >> 1; i > 0 && before(cell, pushed, cells[up], opened[up]); i = up, up = (i - 1) >> 1) {
+                cells[i] = cells[up];
+                opened[i] = opened[up];
+            }
+            cells[i] = cell;
+            opened[i] = pushed++;
+        }
+
+        int pop() {
+            int top = cells[0];
+            int cell = cells[--size], order = opened[size];
+            int i = 0;
+            for (int child = 1; child < size; i = child, child = 2 * i + 1) {
+                if (child + 1 < size && before(cells[child + 1], opened[child + 1], cells[child], opened[child]))
+                    child++;
+                if (!before(cells[child], opened[child], cell, order))
+                    break;
+                cells[i] = cells[child];
+                opened[i] = opened[child];
+            }
+            cells[i] = cell;
+            opened[i] = order;
+            return top;
         }
 
-        @Override
-        public String toString() {
-            return "AStarNode{" +
-                    "coordinate=" + coordinate +
-                    '}';
+        private boolean before(int a, int openedA, int b, int openedB) {
+            int ha = hCost(a), hb = hCost(b);
+            int fa = reached.cost(a) + ha, fb = reached.cost(b) + hb;
+            if (fa != fb)
+                return fa < fb;
+            if (ha != hb)
+                return ha < hb;
+            return openedA < openedB;
         }
     }
-
-}
\ No newline at end of file
+}
@@ -1,8 +1,15 @@
 package group.seven.logic.algorithms;
 
+import group.seven.enums.Action;
 import group.seven.enums.AlgorithmType;
+import group.seven.model.agents.Agent;
 import group.seven.model.agents.Move;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+
 /**
  * General interface for agent algorithms.
  */
@@ -19,4 +26,40 @@ public interface Algorithm {
      * @return enum AlgorithmType
      */
     AlgorithmType getType();
+
+    /**
+     * Writes what the algorithm carries over from one time step to the next (e.g. the moves it planned ahead),
+     * so that a {@link group.seven.logic.simulation.Snapshot} can continue where it was taken.
+     * Algorithms that only look at the current state of the agent write nothing.
+     * @param out stream to write to
+     * @throws IOException if the stream does
+     */
+    default void writeState(DataOutput out) throws IOException {
+    }
+
+    /**
+     * Reads back what {@link #writeState(DataOutput)} wrote
+     * @param in stream to read from
+     * @throws IOException if the stream does
+     */
+    default void readState(DataInput in) throws IOException {
+    }
+
+    static void writeMoves(DataOutput out, Collection<Move> moves) throws IOException {
+        out.writeInt(moves.size());
+        for (Move move : moves) {
+            out.writeByte(move.action().ordinal());
+            out.writeInt(move.distance());
+        }
+    }
+
+    /**
+     * Reads moves written by {@link #writeMoves(DataOutput, Collection)} into the given collection, replacing its content
+     */
+    static void readMoves(DataInput in, Agent agent, Collection<Move> moves) throws IOException {
+        moves.clear();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++)
+            moves.add(new Move(Action.values()[in.readByte()], in.readInt(), agent));
+    }
 }
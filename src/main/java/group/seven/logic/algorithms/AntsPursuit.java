@@ -7,6 +7,9 @@ import group.seven.model.agents.Agent;
 import group.seven.model.agents.Move;
 import group.seven.model.environment.Tile;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.LinkedList;
 
 import static group.seven.enums.TileType.INTRUDER;
@@ -43,11 +46,8 @@ public class AntsPursuit implements Algorithm {
 
     public XY seeTarget() {
         for (Tile t : agent.getSeenTiles()) {
-            for (Agent a : agent.scenario.TILE_MAP.agents) {
-                XY agentPos; //doing the coordinate transform is expensive, so only initialize if a == Intruder
-                if (a.getType() == INTRUDER && (agentPos = a.getXY()).equals(t.getXY())) {
-                    return agentPos;
-                }
+            if (agent.scenario.TILE_MAP.hasAgent(t.getX(), t.getY(), INTRUDER)) {
+                return t.getXY();
             }
         }
 
@@ -58,4 +58,16 @@ public class AntsPursuit implements Algorithm {
     public AlgorithmType getType() {
         return null;
     }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        Algorithm.writeMoves(out, moves);
+        evaw.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        Algorithm.readMoves(in, agent, moves);
+        evaw.readState(in);
+    }
 }
@@ -7,13 +7,13 @@ import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
 import group.seven.model.agents.Move;
 import group.seven.model.environment.Adjacent;
+import group.seven.model.environment.KnowledgeMap;
 import group.seven.model.environment.Scenario;
 import group.seven.model.environment.Tile;
 import group.seven.model.environment.TileNode;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 import static group.seven.enums.Action.*;
 import static group.seven.enums.Cardinal.*;
@@ -65,10 +65,8 @@ public class BrickAndMortar implements Algorithm {
 
     public XY seeTarget() {
         for (Tile t : agent.getSeenTiles()) {
-            for (Agent a : scenario.TILE_MAP.agents) {
-                if (a.getType() == INTRUDER && a.getX() == t.getX() && a.getY() == t.getY()) {
-                    return new XY(a.getX(), a.getY());
-                }
+            if (scenario.TILE_MAP.hasAgent(t.getX(), t.getY(), INTRUDER)) {
+                return t.getXY();
             }
         }
         return new XY(-1, -1);
@@ -80,15 +78,21 @@ public class BrickAndMortar implements Algorithm {
      * closure. The moves are added to the move list {@link BrickAndMortar#moves}
      */
     public void BAMWithoutLoopClosure() {
-        TileNode currentTile = agent.getMapPosition(agent.getX(), agent.getY()); //TODO I changed in terms of global coords
+        //the team map if the guards share one, so what a teammate discovered is used too
+        TileNode currentTile = agent.getKnowledgeMap().get(agent.getX(), agent.getY());
+        if (currentTile == null) {
+            //came out of a portal onto a tile it has not seen, get back onto one it knows first
+            stepToKnownTile();
+            return;
+        }
         Adjacent<TileNode> neighbours = currentTile.getAdjacent();
         D d = countD(neighbours);
 
         // check if removing this cell does not block the path between two explored / unexplored cells
         if ((d.exploredTiles + d.unexploredTiles) < 2) {
-            currentTile.setExploreType(VISITED);
+            agent.applyEffect(() -> currentTile.setExploreType(VISITED));
         } else {
-            currentTile.setExploreType(EXPLORED);
+            agent.applyEffect(() -> currentTile.setExploreType(EXPLORED));
         }
 
         if (d.unexploredTiles > 0) {
@@ -107,8 +111,7 @@ public class BrickAndMortar implements Algorithm {
                     choices.add(t);
                 }
             }
-            Random rand = new Random();
-            chosen = choices.get(rand.nextInt(0, choices.size()));
+            chosen = choices.get(agent.getRandom().nextInt(0, choices.size()));
             AStarPathFinder pf = new AStarPathFinder(agent, new XY(chosen.getX(), chosen.getY()));
             moves.addAll(pf.findPath());
         } else if (d.exploredTiles > 0) {
@@ -123,6 +126,25 @@ public class BrickAndMortar implements Algorithm {
         }
     }
 
+    /**
+     * Adds the moves to a known, free tile next to the agent. If there is none, the agent turns clockwise to look for one
+     */
+    private void stepToKnownTile() {
+        KnowledgeMap map = agent.getKnowledgeMap();
+        for (Cardinal orientation : orientations) {
+            int x = agent.getX() + orientation.unitVector.x(), y = agent.getY() + orientation.unitVector.y();
+            if (map.isKnown(x, y) && map.getType(x, y) != WALL) {
+                moves.addAll(new AStarPathFinder(agent, new XY(x, y)).findPath());
+                return;
+            }
+        }
+        for (int i = 0; i < orientations.length; i++)
+            if (orientations[i] == agent.getDirection())
+                moves.add(new Move(getAction(orientations[(i + 1) % orientations.length]), 0, agent));
+        if (moves.isEmpty())
+            moves.add(new Move(getAction(NORTH), 0, agent));
+    }
+
     private TileNode chooseTarget(TileNode currentTile, int startingIndex, boolean selectSame) {
         for (int i = startingIndex; i < orientations.length; i++) {
             TileNode adjacent = currentTile.getAdjacent().getAdjacent(orientations[i]);
@@ -9,6 +9,9 @@ import group.seven.model.agents.Move;
 import group.seven.model.environment.TileNode;
 import group.seven.model.environment.Scenario;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 
 import static group.seven.enums.AlgorithmType.EVAW;
@@ -59,7 +62,7 @@ public class EVAW implements Algorithm {
      */
     public void calculateMove() {
         TileNode target = chooseTile(agent.getX(), agent.getY(), 10); //TODO, this is agents global pos
-        s.TILE_MAP.dropPheromone(target.getX(), target.getY());
+        agent.applyEffect(() -> s.TILE_MAP.dropPheromone(target.getX(), target.getY()));
         AStarPathFinder pf = new AStarPathFinder(agent, new XY(target.getX(), target.getY()));
         moves.addAll(pf.findPath());
     }
@@ -85,7 +88,7 @@ public class EVAW implements Algorithm {
                 difference.target = compare;
                 difference.targetOrientation = compareOrientation;
             } else if (compare.getPheromoneStrength() == difference.target.getPheromoneStrength()) {
-                if (Math.random() > 0.5) {
+                if (agent.getRandom().nextDouble() > 0.5) {
                     difference.target = compare;
                     difference.targetOrientation = compareOrientation;
                 }
@@ -109,7 +112,7 @@ public class EVAW implements Algorithm {
                         choice.clear();
                         choice.add(t);
                         target = t;
-                    } else if (t.getPheromoneStrength() == target.getPheromoneStrength() && Math.random() > 0.5) {
+                    } else if (t.getPheromoneStrength() == target.getPheromoneStrength() && agent.getRandom().nextDouble() > 0.5) {
                         choice.add(t);
                         target = t;
                     }
@@ -119,8 +122,7 @@ public class EVAW implements Algorithm {
         }
 
         if (choice.size() > 1) {
-            Random rand = new Random();
-            return choice.get(rand.nextInt(choice.size()));
+            return choice.get(agent.getRandom().nextInt(choice.size()));
         } else return target;
     }
 
@@ -128,4 +130,14 @@ public class EVAW implements Algorithm {
     public AlgorithmType getType() {
         return EVAW;
     }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        Algorithm.writeMoves(out, moves);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        Algorithm.readMoves(in, agent, moves);
+    }
 }
@@ -6,9 +6,13 @@ import group.seven.enums.TileType;
 import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
 import group.seven.model.agents.Move;
+import group.seven.model.environment.StaticFeatures;
 import group.seven.model.environment.Tile;
 import org.apache.commons.collections4.queue.CircularFifoQueue;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 
 public class FishSwarm implements Algorithm {
@@ -18,7 +22,8 @@ public class FishSwarm implements Algorithm {
     //private final double EPSILON = 0.000001;
     //private final double min = -1 * 8 * layerLevels;
     //private final double max = 8 * layerLevels;
-    private final int[][] fitnessMap;
+    //shared by all the fish, the fitness of a tile is computed from its wall counts
+    private final StaticFeatures features;
     private final int maxValueFitness = 8 * layerLevels;
     Agent agent;
     LinkedList<Move> moves = new LinkedList<>();
@@ -31,8 +36,7 @@ public class FishSwarm implements Algorithm {
     public FishSwarm(Agent agent) {
         this.agent = agent;
         CROWDING_FACTOR = agent.scenario.NUM_GUARDS/2;
-        fitnessMap = new int[agent.scenario.WIDTH][agent.scenario.HEIGHT];
-        calculateFitness();
+        features = agent.scenario.getFeatures();
         maxHCost = calculateMaxHCost();
         shortTermMemory = new CircularFifoQueue<>(16 * (numberOfTilesInVision));
         
@@ -50,9 +54,26 @@ public class FishSwarm implements Algorithm {
         return AlgorithmType.FISH;
     }
 
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(shortTermMemory.size());
+        for (Tile tile : shortTermMemory) {
+            out.writeInt(tile.getX());
+            out.writeInt(tile.getY());
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        shortTermMemory.clear();
+        for (int i = in.readInt(); i > 0; i--)
+            shortTermMemory.add(agent.scenario.TILE_MAP.getTile(in.readInt(), in.readInt()));
+    }
+
     @Override
     public Move getNext() {
-        Tile current = new Tile(agent.getXY().x(), agent.getXY().y(), agent.scenario);
+        //tiles are taken from the shared map, creating new ones would register a pheromone every call
+        Tile current = agent.scenario.TILE_MAP.getTile(agent.getXY());
         shortTermMemory.add(current);
         shortTermMemory.addAll(neighbours(current));
 
@@ -62,11 +83,11 @@ public class FishSwarm implements Algorithm {
             if (agent.getSeenTiles().size() == 0) {
                 //System.out.println("STUCK");
                 moves.add(new Move(Action.FLIP, 0, agent));
-                moves.add(new Move(Action.MOVE_FORWARD, (int) ((Math.random() * agent.scenario.VIEW_DISTANCE)), agent));
+                moves.add(new Move(Action.MOVE_FORWARD, (int) ((agent.getRandom().nextDouble() * agent.scenario.VIEW_DISTANCE)), agent));
                 return moves.poll();
             }
             XY agentGlobalPosition = agent.getXY();
-            double x_i = getTileValue(new Tile(agentGlobalPosition.x(), agentGlobalPosition.y(), agent.scenario));
+            double x_i = getTileValue(agent.scenario.TILE_MAP.getTile(agentGlobalPosition));
             Tile x_c_Tile = getHighestFrontier(agent.getSeenTiles());
             double x_c = getTileValue(x_c_Tile);
             int fishesInVision = countFishesInVision(agent.getSeenTiles());
@@ -99,7 +120,7 @@ public class FishSwarm implements Algorithm {
                 moves.add(new Move(Action.FLIP, 0, agent));
                 //int test = (int)(Math.random()*2)+1;
                 //int scne = Scenario.VIEW_DISTANCE;
-                moves.add(new Move(Action.MOVE_FORWARD, (int) ((Math.random() * agent.scenario.VIEW_DISTANCE)), agent));
+                moves.add(new Move(Action.MOVE_FORWARD, (int) ((agent.getRandom().nextDouble() * agent.scenario.VIEW_DISTANCE)), agent));
                 //System.out.println();
             }
         }
@@ -112,12 +133,7 @@ public class FishSwarm implements Algorithm {
     private int countFishesInVision(List<Tile> seenTiles) {
         int seenFishes = 0;
         for (Tile tile : seenTiles) {
-            for (Agent potentialGuard : agent.scenario.TILE_MAP.agents) {
-                if (potentialGuard.getType() == TileType.GUARD && potentialGuard.getXY().equals(tile.getXY())) {
-                    seenFishes++;
-                }
-            }
-
+            seenFishes += agent.scenario.TILE_MAP.countAgents(tile.getX(), tile.getY(), TileType.GUARD);
         }
         return seenFishes;
     }
@@ -129,10 +145,8 @@ public class FishSwarm implements Algorithm {
 
     public List<Move> chasingMode(List<Tile> vision) {
         for (Tile tile : vision) {
-            for (Agent potentialGuard : agent.scenario.TILE_MAP.agents) {
-                if (potentialGuard.getType() == TileType.GUARD && potentialGuard.getXY().equals(tile.getXY())) {
-                    return pathFind(tile);
-                }
+            if (agent.scenario.TILE_MAP.hasAgent(tile.getX(), tile.getY(), TileType.GUARD)) {
+                return pathFind(tile);
             }
         }
         System.out.println("ERROR OCCURED");
@@ -140,24 +154,22 @@ public class FishSwarm implements Algorithm {
     }
 
     public double getTileValue(Tile tile) {
-        int tileValue = getFitnessValue(tile) + calculateHCost(tile, new Tile(agent.getXY().x(), agent.getXY().y(), agent.scenario));
+        int tileValue = getFitnessValue(tile) + calculateHCost(tile, agent.scenario.TILE_MAP.getTile(agent.getXY()));
 
-        for (Agent potentialIntruder : agent.scenario.TILE_MAP.agents) {
-            if (potentialIntruder.getType() == TileType.INTRUDER && potentialIntruder.getXY().equals(tile.getXY())) {
-                tileValue = F_MAX;
-            }
+        if (agent.scenario.TILE_MAP.hasAgent(tile.getX(), tile.getY(), TileType.INTRUDER)) {
+            tileValue = F_MAX;
         }
         return tileValue;
     }
 
     public int getFitnessValue(Tile tile) {
-        int fitnessValue = fitnessMap[tile.getX()][tile.getY()];
+        int fitnessValue = calculateFitness(tile.getX(), tile.getY());
         //System.out.println("Fitness Value "+fitnessValue);
         int normalizedFitnessValue = (fitnessValue * 100) / maxValueFitness;
         //System.out.println("Fitness Value Normalized "+ normalizedFitnessValue );
         int max = 8 * layerLevels;
         int min = -1 * 8 * layerLevels;
-        double random = (Math.round(Math.random() * (max - min + 1) + min));
+        double random = (Math.round(agent.getRandom().nextDouble() * (max - min + 1) + min));
         random = ((random * 100) / max) * 0.1;
         //System.out.println("Random number " + random);
         return normalizedFitnessValue + (int) random;
@@ -168,96 +180,25 @@ public class FishSwarm implements Algorithm {
         return (hCost * 100) / maxHCost;
     }
 
-    public void calculateFitness() {
-        double maxVal = 0;
-        int numberOfNeighbours = layerLevels * 8;
-        for (int x = 0; x < fitnessMap.length; x++) {
-            for (int y = 0; y < fitnessMap[0].length; y++) {
-                //loop through the levels of layers
-                List<Tile> neighbours = new LinkedList<>();
-                if (agent.scenario.TILE_MAP.getTile(x, y).getType() != TileType.WALL) {
-                    for (int layer = 1; layer <= layerLevels; layer++) {
-                        //4 independent four loops for each side
-                        neighbours.addAll(traverseNeighbours(agent.scenario.TILE_MAP.getTile(x, y), layer));
-                    }
-                    int walls = countWalls(neighbours);
-                    // double random = (Math.round(Math.random() * (max - min + 1) + min));
-                    fitnessMap[x][y] = Math.round(numberOfNeighbours - walls);// + random);
-                    if (fitnessMap[x][y] > maxVal) {
-                        maxVal = fitnessMap[x][y];
-                    }
-                }
-            }
-        }
-        /*normalize fitness
-         for (int x = 0; x < fitnessMap[0].length; x++) {
-            for (int y = 0; y < fitnessMap[1].length; y++) {
-                if (fitnessMap[y][x] == maxVal) {
-                    fitnessMap[y][x] = (fitnessMap[y][x] / maxVal) - 0.00001;
-                } else {
-                    fitnessMap[y][x] = fitnessMap[y][x] / maxVal;
-                }
-            }
-         }*/
-    }
+    /**
+     * The fitness of a free tile is the number of free tiles on the rings of the layers around it.
+     * The rings are walked side by side, so their corners count twice. Walls have no fitness.
+     */
+    public int calculateFitness(int x, int y) {
+        if (features.isWall(x, y))
+            return 0;
 
-    public List<Tile> traverseNeighbours(Tile current, int layer) {
-        List<Tile> neighbours = new LinkedList<>();
-        //traverse top
-        for (int column = current.getY() - layer; column <= current.getY() + layer; column++) {
-            int row = current.getX() - layer;
-            if (row > agent.scenario.WIDTH || column > agent.scenario.HEIGHT) {
-                break;
-            }
-            if (row >= 0 && column >= 0) {
-                neighbours.add(agent.scenario.TILE_MAP.getTile(row, column));
-            }
-        }
-        //traverse right
-        for (int row = current.getX() - layer; row <= current.getX() + layer; row++) {
-            int column = current.getY() + layer;
-            if (row > agent.scenario.WIDTH || column > agent.scenario.HEIGHT) {
-                break;
-            }
-            if (row >= 0 && column >= 0) {
-                neighbours.add(agent.scenario.TILE_MAP.getTile(row, column));
-            }
-        }
-        //traverse bottom
-        for (int column = current.getY() - layer; column <= current.getY() + layer; column++) {
-            int row = current.getX() + layer;
-            if (row > agent.scenario.WIDTH || column > agent.scenario.HEIGHT) {
-                break;
-            }
-            if (row >= 0 && column >= 0) {
-                neighbours.add(agent.scenario.TILE_MAP.getTile(row, column));
-            }
-        }
-        //traverse left
-        for (int row = current.getX() - layer; row <= current.getX() + layer; row++) {
-            int column = current.getY() - layer;
-            if (row > agent.scenario.WIDTH || column > agent.scenario.HEIGHT) {
-                break;
-            }
-            if (row >= 0 && column >= 0) {
-                neighbours.add(agent.scenario.TILE_MAP.getTile(row, column));
-            }
-        }
-        return neighbours;
-    }
-
-    public int countWalls(List<Tile> neighbours) {
-        int numberOfWalls = 0;
-        for (Tile tile : neighbours) {
-            if (tile.getType() == TileType.WALL) {
-                numberOfWalls++;
-            }
-        }
-        return numberOfWalls;
+        int walls = features.countWalls(x - layerLevels, y - layerLevels, x + layerLevels, y + layerLevels);
+        for (int layer = 1; layer <= layerLevels; layer++)
+            walls += features.countWalls(x - layer, y - layer, x - layer, y - layer)
+                    + features.countWalls(x - layer, y + layer, x - layer, y + layer)
+                    + features.countWalls(x + layer, y - layer, x + layer, y - layer)
+                    + features.countWalls(x + layer, y + layer, x + layer, y + layer);
+        return layerLevels * 8 - walls;
     }
 
     public Tile getHighestFrontierOLD() {
-        Random rand = new Random();
+        SplittableRandom rand = agent.getRandom();
         Tile max = agent.getSeenTiles().get(rand.nextInt(agent.getSeenTiles().size()));
         for (Tile tile : agent.getSeenTiles()) {
             if (tile.getType() == TileType.INTRUDER) {
@@ -269,32 +210,37 @@ public class FishSwarm implements Algorithm {
         return max;
     }
 
+    /**
+     * Picks the best valued tile in vision that is not in the short term memory.
+     * Works on a copy, the agent's vision is read by others while moves are decided.
+     *
+     * @param vision tiles to choose from, must not be empty
+     * @return the chosen tile, a random tile of the vision if all of them were visited recently
+     */
     public Tile getHighestFrontier(List<Tile> vision) {
-        XY coordinates = agent.getXY();
-        Random rand = new Random();
-        Tile max = agent.getSeenTiles().get(rand.nextInt(agent.getSeenTiles().size()));
-        Tile secondHighest = agent.getSeenTiles().get(rand.nextInt(agent.getSeenTiles().size()));
-        for (Tile tile : vision) {
-            if (tile.getType() == TileType.INTRUDER) {
-                return tile;
+        SplittableRandom rand = agent.getRandom();
+        List<Tile> candidates = new ArrayList<>(vision);
+        while (!candidates.isEmpty()) {
+            Tile max = candidates.get(rand.nextInt(candidates.size()));
+            Tile secondHighest = candidates.get(rand.nextInt(candidates.size()));
+            for (Tile tile : candidates) {
+                if (tile.getType() == TileType.INTRUDER) {
+                    return tile;
+                }
+                if (getTileValue(tile) > getTileValue(max)) {
+                    secondHighest = max;
+                    max = tile;
+                }
             }
-            //System.out.println("TILE " + getTileValue(tile));
-            //System.out.println("MAX " + getTileValue(max));
-            if (getTileValue(tile) > getTileValue(max)) {
-                secondHighest = max;
-                max = tile;
+            if (!(shortTermMemory.contains(max))) {
+                return max;
+            } else if (!(shortTermMemory.contains(secondHighest))) {
+                return secondHighest;
             }
+            candidates.remove(max);
+            candidates.remove(secondHighest);
         }
-        if (!(shortTermMemory.contains(max))) {
-            return max;
-        } else if (!(shortTermMemory.contains(secondHighest))) {
-            return secondHighest;
-        } else {
-            List<Tile> adaptedVision = agent.getSeenTiles();
-            adaptedVision.remove(max);
-            adaptedVision.remove(secondHighest);
-            return getHighestFrontier(adaptedVision);
-        }
+        return vision.get(rand.nextInt(vision.size()));
     }
 
     public int calculateMaxHCost() {
@@ -310,16 +256,11 @@ public class FishSwarm implements Algorithm {
         List<Tile> neighbours = new ArrayList<>();
         for (int i = -2; i < 3; i++) {
             if (i != 0) {
-                Tile neighbor1 = new Tile(x + i, y, agent.scenario);
-                Tile neighbor2 = new Tile(x, y + i, agent.scenario);
-                if (y < agent.scenario.HEIGHT && x < agent.scenario.WIDTH && x > 0 && y > 0) {
-                    if (!neighbours.contains(neighbor1))
-                        neighbours.add(neighbor1);
-
-                }
                 if (y < agent.scenario.HEIGHT && x < agent.scenario.WIDTH && x > 0 && y > 0) {
-                    if (!neighbours.contains(neighbor2))
-                        neighbours.add(neighbor2);
+                    if (x + i >= 0 && x + i <= agent.scenario.WIDTH)
+                        neighbours.add(agent.scenario.TILE_MAP.getTile(x + i, y));
+                    if (y + i >= 0 && y + i <= agent.scenario.HEIGHT)
+                        neighbours.add(agent.scenario.TILE_MAP.getTile(x, y + i));
                 }
             }
         }
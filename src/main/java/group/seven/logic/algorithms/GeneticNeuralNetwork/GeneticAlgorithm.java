@@ -2,19 +2,23 @@ package group.seven.logic.algorithms.GeneticNeuralNetwork;
 
 import group.seven.enums.AlgorithmType;
 import group.seven.logic.geometric.XY;
-import group.seven.logic.simulation.Simulator;
+import group.seven.logic.simulation.experimentation.RunConfig;
+import group.seven.logic.simulation.experimentation.RunExecutor;
 import group.seven.model.environment.Scenario;
 import group.seven.model.environment.ScenarioBuilder;
 import group.seven.model.environment.Tile;
 import group.seven.utils.Config;
+import group.seven.utils.RandomSource;
 import org.jgrapht.Graph;
 import org.jgrapht.alg.shortestpath.AStarShortestPath;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.builder.GraphTypeBuilder;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static group.seven.enums.TileType.WALL;
 
@@ -34,12 +38,15 @@ public class GeneticAlgorithm {
     static Graph<XY, DefaultWeightedEdge> graph;
     static AStarShortestPath<XY, DefaultWeightedEdge> astar;
     private final Population population;
+    private final SplittableRandom seeds; //seed of every simulation run
 
     public GeneticAlgorithm() {
         System.out.println("started ga");
         graph = createGraph(new ScenarioBuilder().build());
         astar = new AStarShortestPath<>(graph, XY::distance);
-        population = new Population(populationSize, chromosomeLength, true);
+        RandomSource random = new RandomSource();
+        population = new Population(populationSize, chromosomeLength, true, random);
+        seeds = random.split();
         train();
     }
 
@@ -57,65 +64,28 @@ public class GeneticAlgorithm {
     private void runSimulations() {
         population.isSorted = false;
         System.out.println("started threading");
-        int count = 0;
-        ScenarioBuilder sc = new ScenarioBuilder();
         long startTime = System.currentTimeMillis();
-//        ExecutorService executor = Executors.newFixedThreadPool(10);
-
-//        List<Runnable> tasks = new ArrayList<>();
-        for (Individual i : population.population) {
-//            Runnable runnableTask = () -> {
-//                Scenario s = sc.build();
-//                s.setChromosome(i.getChromosome());
-//                i.setCurrentScenario(s);
-//                new Simulator(s);
-//                i.calculateFitness();
-//                i.setCurrentScenario(null);
-//            };
-//            Runnable r = new Runnable() {
-//                @Override
-//                public void run() {
-//                    Scenario s = new ScenarioBuilder().build();
-//                    s.setChromosome(i.getChromosome());
-//                    i.setCurrentScenario(s);
-//                    new Simulator(s);
-//                    i.calculateFitness();
-//                    i.setCurrentScenario(null);
-//                }
-//            };
-//            Callable<String> callableTask = () -> {
-//                Scenario s = sc.build();
-//                s.setChromosome(i.getChromosome());
-//                i.setCurrentScenario(s);
-//                new Simulator(s);
-//                i.calculateFitness();
-//                i.setCurrentScenario(null);
-//                return "Task's execution";
-//            };
-//            tasks.add(r);
-            Scenario s = sc.build();
-            s.setChromosome(i.getChromosome());
-            i.setCurrentScenario(s);
-            new Simulator(s);
-            i.calculateFitness();
-            i.setCurrentScenario(null);
-            count++;
+        File mapFile = new ScenarioBuilder().getMapFile();
+
+        List<RunConfig> runs = new ArrayList<>(population.population.size());
+        for (Individual i : population.population)
+            runs.add(new RunConfig(mapFile, seeds.nextLong()).withChromosome(i.getChromosome()));
+
+        //fitness is computed on this thread as the runs come in, the shared A* instance is not thread safe
+        try (RunExecutor executor = new RunExecutor()) {
+            executor.run(runs, (result, scenario) -> {
+                if (result.isFailed())
+                    throw new IllegalStateException("simulation run failed", result.error());
+                Individual i = population.population.get(result.index());
+                i.setCurrentScenario(scenario);
+                i.calculateFitness();
+                i.setCurrentScenario(null);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while running the generation", e);
         }
 
-//        for (Runnable r : tasks) {
-//            executor.submit(r);
-//        }
-//
-//        executor.shutdown();
-//        try {
-//            if (!executor.awaitTermination(1000000, TimeUnit.MILLISECONDS)) {
-//                executor.shutdownNow();
-//            }
-//        } catch (InterruptedException e) {
-//            executor.shutdownNow();
-//        }
-
-
         System.out.println("time taken: " + (System.currentTimeMillis() - startTime) + "ms");
         System.out.println("finished threading");
     }
@@ -128,7 +98,7 @@ public class GeneticAlgorithm {
             Scenario a = sc.build();
             i.setCurrentScenario(a);
             a.setChromosome(i.getChromosome());
-            Config.ALGORITHM_INTRUDER = AlgorithmType.GENETIC_NEURAL_NETWORK;
+            a.INTRUDER_ALGORITHM = AlgorithmType.GENETIC_NEURAL_NETWORK;
             list.add(a);
         }
         return list;
@@ -9,6 +9,7 @@ import org.jgrapht.graph.DefaultWeightedEdge;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static group.seven.enums.TileType.INTRUDER;
 import static group.seven.logic.algorithms.GeneticNeuralNetwork.GeneticAlgorithm.astar;
@@ -27,15 +28,15 @@ public class Individual {
         this.chromosomeLength = chromosomeLength;
     }
 
-    public Individual(int chromosomeLength) {
+    public Individual(int chromosomeLength, SplittableRandom random) {
         chromosome = new ArrayList<>();
         this.chromosomeLength = chromosomeLength;
-        initializeRandomWeights();
+        initializeRandomWeights(random);
     }
 
-    private void initializeRandomWeights() {
+    private void initializeRandomWeights(SplittableRandom random) {
         for (int i = 0; i < chromosomeLength; i++) {
-            chromosome.add(Methods.randomNumber(-1, 1));
+            chromosome.add(Methods.randomNumber(random, -1, 1));
         }
     }
 
@@ -106,10 +107,12 @@ public class Individual {
 
     /**
      * Mutates some weights of the agent randomly.
+     *
+     * @param random random stream of the population
      */
-    public void mutateChromosome() {
+    public void mutateChromosome(SplittableRandom random) {
         for (int i = 0; i < chromosome.size(); i++) {
-            chromosome.set(i, mutateChromosome(chromosome.get(i)));
+            chromosome.set(i, mutateChromosome(chromosome.get(i), random));
         }
     }
 
@@ -117,14 +120,15 @@ public class Individual {
      * Mutates a single chromosome.
      *
      * @param weight old weight
+     * @param random random stream of the population
      * @return new weight (after mutation)
      */
-    private double mutateChromosome(double weight) {
-        double r = Math.random();
+    private double mutateChromosome(double weight, SplittableRandom random) {
+        double r = random.nextDouble();
         if (r < GeneticAlgorithm.mutationRate) {
-            if (Math.random() < 0.5) {
-                return Methods.randomNumber(-1, 1);
-            } else return Methods.randomNumber(-1, 1);
+            if (random.nextDouble() < 0.5) {
+                return Methods.randomNumber(random, -1, 1);
+            } else return Methods.randomNumber(random, -1, 1);
         }
         return weight;
     }
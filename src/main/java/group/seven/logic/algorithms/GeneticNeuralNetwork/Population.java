@@ -2,12 +2,14 @@ package group.seven.logic.algorithms.GeneticNeuralNetwork;
 
 import group.seven.utils.Config;
 import group.seven.utils.Methods;
+import group.seven.utils.RandomSource;
 
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static group.seven.logic.algorithms.GeneticNeuralNetwork.GeneticAlgorithm.fileName2;
 
@@ -16,16 +18,25 @@ public class Population {
     private final static int numberOfSurvivors = 20;
     private final static String fileName = "TBD";
     private final int chromosomeLength;
+    private final SplittableRandom random;
     List<Individual> population;
     int populationSize;
     boolean isSorted = false;
 
     public Population(int populationSize, int chromosomeLength, boolean randomWeights) {
+        this(populationSize, chromosomeLength, randomWeights, new RandomSource());
+    }
+
+    /**
+     * @param randomSource source of the random weights, mutations and cross-overs, seed it to repeat an evolution
+     */
+    public Population(int populationSize, int chromosomeLength, boolean randomWeights, RandomSource randomSource) {
         this.chromosomeLength = chromosomeLength;
+        random = randomSource.split();
         population = new ArrayList<>();
         this.populationSize = populationSize;
         for (int i = 0; i < populationSize; i++) {
-            population.add(new Individual(chromosomeLength));
+            population.add(new Individual(chromosomeLength, random));
         }
 
         if (!randomWeights) {
@@ -78,15 +89,15 @@ public class Population {
 
     private void mutatePopulation() {
         for (Individual i : population) {
-            i.mutateChromosome();
+            i.mutateChromosome(random);
         }
     }
 
     private void birth() {
         for (int i = numberOfSurvivors; i < population.size(); i = i + 2) {
-            int motherIndex = (int) Methods.randomNumber(0, numberOfStrongest - 1);
+            int motherIndex = (int) Methods.randomNumber(random, 0, numberOfStrongest - 1);
             Individual mother = population.get(motherIndex);
-            int fatherIndex = (int) Methods.randomNumber(0, numberOfStrongest - 1);
+            int fatherIndex = (int) Methods.randomNumber(random, 0, numberOfStrongest - 1);
             Individual father = population.get(fatherIndex);
             crossOver(mother, father, population.get(i), population.get(i + 1));
         }
@@ -125,8 +136,8 @@ public class Population {
     }
 
     private int[] generateCrossOverPoints() {
-        int firstCrossOverPoint = (int) Methods.randomNumber(0, chromosomeLength);
-        int secondCrossOverPoint = (int) Methods.randomNumber(0, chromosomeLength);
+        int firstCrossOverPoint = (int) Methods.randomNumber(random, 0, chromosomeLength);
+        int secondCrossOverPoint = (int) Methods.randomNumber(random, 0, chromosomeLength);
         if (secondCrossOverPoint < firstCrossOverPoint) {
             int temp = firstCrossOverPoint;
             firstCrossOverPoint = secondCrossOverPoint;
@@ -1,7 +1,6 @@
 package group.seven.logic.algorithms.GeneticNeuralNetwork;
 
 import group.seven.enums.TileType;
-import group.seven.model.agents.Agent;
 import group.seven.model.environment.Scenario;
 import group.seven.model.environment.Tile;
 
@@ -41,11 +40,7 @@ public class VisionAnalysis {
     public static int numIntruders(Scenario s, List<Tile> tiles) {
         int count = 0;
         for (Tile tile : tiles) {
-            for (Agent a : s.getTileMap().agents) {
-                if (a.getXY().equals(tile.getXY()) && a.getType() == INTRUDER) {
-                    count++;
-                }
-            }
+            count += s.getTileMap().countAgents(tile.getX(), tile.getY(), INTRUDER);
         }
         return count;
     }
@@ -61,11 +56,7 @@ public class VisionAnalysis {
     public static int numGuards(Scenario s, List<Tile> tiles) {
         int count = 0;
         for (Tile tile : tiles) {
-            for (Agent a : s.getTileMap().agents) {
-                if (a.getXY().equals(tile.getXY()) && a.getType() == GUARD) {
-                    count++;
-                }
-            }
+            count += s.getTileMap().countAgents(tile.getX(), tile.getY(), GUARD);
         }
         return count;
     }
@@ -73,12 +73,12 @@ public class NN implements Algorithm {
         List<Tile> seenTiles = agent.getSeenTiles();
         Matrix input = new Matrix(1, GeneticAlgorithm.inputSize);
 
-        input.set(0, 0, VisionAnalysis.numStaticComponent(seenTiles, WALL) * (-0.5 + Math.random()) * 0.1);
-        input.set(0, 1, VisionAnalysis.numStaticComponent(seenTiles, TARGET) * (-0.5 + Math.random()) * 0.1);
-        input.set(0, 2, VisionAnalysis.numStaticComponent(seenTiles, PORTAL) * (-0.5 + Math.random()) * 0.1);
-        input.set(0, 3, VisionAnalysis.numStaticComponent(seenTiles, EMPTY) * (-0.5 + Math.random()) * 0.1);
-        input.set(0, 4, VisionAnalysis.numIntruders(agent.scenario, seenTiles) * (-0.5 + Math.random()) * 0.1);
-        input.set(0, 5, VisionAnalysis.numGuards(agent.scenario, seenTiles) * (-0.5 + Math.random()) * 0.1);
+        input.set(0, 0, VisionAnalysis.numStaticComponent(seenTiles, WALL) * (-0.5 + agent.getRandom().nextDouble()) * 0.1);
+        input.set(0, 1, VisionAnalysis.numStaticComponent(seenTiles, TARGET) * (-0.5 + agent.getRandom().nextDouble()) * 0.1);
+        input.set(0, 2, VisionAnalysis.numStaticComponent(seenTiles, PORTAL) * (-0.5 + agent.getRandom().nextDouble()) * 0.1);
+        input.set(0, 3, VisionAnalysis.numStaticComponent(seenTiles, EMPTY) * (-0.5 + agent.getRandom().nextDouble()) * 0.1);
+        input.set(0, 4, VisionAnalysis.numIntruders(agent.scenario, seenTiles) * (-0.5 + agent.getRandom().nextDouble()) * 0.1);
+        input.set(0, 5, VisionAnalysis.numGuards(agent.scenario, seenTiles) * (-0.5 + agent.getRandom().nextDouble()) * 0.1);
         input.set(0, 6, directionToNumber(agent.getDirection()));
 
         return input;
@@ -6,13 +6,12 @@ import group.seven.model.agents.Agent;
 import group.seven.model.agents.Move;
 
 import static group.seven.enums.Action.MOVE_FORWARD;
-import static group.seven.logic.simulation.Simulator.rand;
 
 public record RandomAlt(Agent agent) implements Algorithm {
 
     @Override
     public Move getNext() {
-        Action action = Math.random() < 0.3 ? Action.values()[rand.nextInt(5)] : MOVE_FORWARD;
+        Action action = agent.getRandom().nextDouble() < 0.3 ? Action.values()[agent.getRandom().nextInt(5)] : MOVE_FORWARD;
         //agent.setSpeed();
         return new Move(action, (action == MOVE_FORWARD ? agent.getSpeed() : 0), agent);
     }
@@ -23,7 +23,7 @@ public class RandomMoves implements Algorithm {
      */
     @Override
     public Move getNext() {
-        int randomInt = (int) (Math.random() * 6);
+        int randomInt = agent.getRandom().nextInt(6);
         if (randomInt == 0) {
             return new Move(Action.TURN_UP, 0, agent);
         }
@@ -36,7 +36,7 @@ public class RandomMoves implements Algorithm {
         if (randomInt == 3) {
             return new Move(Action.TURN_DOWN, 0, agent);
         } else {
-            int distance = (int) (Math.random() * agent.scenario.VIEW_DISTANCE);
+            int distance = (int) (agent.getRandom().nextDouble() * agent.scenario.VIEW_DISTANCE);
             return new Move(Action.MOVE_FORWARD, (distance == 0 ? 1 : distance), agent);
         }
     }
@@ -0,0 +1,63 @@
+package group.seven.logic.algorithms;
+
+import group.seven.model.environment.VisibleCells;
+
+import java.util.Arrays;
+
+/**
+ * Per-cell scratch space of the path searches of one agent, reused for every search it makes. Starting a search only
+ * starts a new generation, the way {@link VisibleCells} clears its stamps, so a search costs in the order of the cells
+ * it reaches, not of the size of the map. Only grows when the agent searches a larger map.
+ */
+public final class SearchCells {
+    //generation in which each cell was reached, its cost and the cell it was reached from
+    private int[] stamps = new int[0];
+    private int[] costs = new int[0];
+    private int[] parents = new int[0];
+    private int generation = 0;
+
+    /**
+     * Starts a new search, in which no cell has been reached yet
+     *
+     * @param cells number of cells of the map searched
+     */
+    public void reset(int cells) {
+        if (stamps.length < cells) {
+            stamps = new int[cells];
+            costs = new int[cells];
+            parents = new int[cells];
+            generation = 0;
+        }
+        if (++generation == Integer.MAX_VALUE) { //stamps of old generations could be taken for the new one
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    public boolean isReached(int cell) {
+        return stamps[cell] == generation;
+    }
+
+    /**
+     * Marks the cell as reached in this search
+     */
+    public void reach(int cell, int cost, int parent) {
+        stamps[cell] = generation;
+        costs[cell] = cost;
+        parents[cell] = parent;
+    }
+
+    /**
+     * @return cost the reached cell was reached with
+     */
+    public int cost(int cell) {
+        return costs[cell];
+    }
+
+    /**
+     * @return cell the reached cell was reached from
+     */
+    public int parent(int cell) {
+        return parents[cell];
+    }
+}
@@ -20,14 +20,14 @@ import org.jgrapht.graph.builder.GraphTypeBuilder;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import static group.seven.enums.Cardinal.*;
 import static group.seven.enums.TileType.WALL;
 
 public class GraphAstar implements Algorithm {
 
-    Random rand = new Random();
+    SplittableRandom rand;
 
     Agent agent;
     Scenario scenario;
@@ -39,6 +39,7 @@ public class GraphAstar implements Algorithm {
 
     public GraphAstar(Agent agent) {
         this.agent = agent;
+        rand = agent.getRandom();
         currentPos = agent.getXY();
         scenario = agent.scenario;
         tileMap = scenario.getTileMap();
@@ -96,7 +97,7 @@ public class GraphAstar implements Algorithm {
      */
     private Move calculateMove(LinkedList<XY> path) {
         if (path.isEmpty()) {
-            Action rotate = randomDirection().getAction();
+            Action rotate = randomDirection(rand).getAction();
             return new Move(rotate, 0, agent);
         } else {
             XY tile = path.getFirst();
@@ -111,7 +112,7 @@ public class GraphAstar implements Algorithm {
                 return new Move(Action.MOVE_FORWARD, (int) (step + Math.rint(rand.nextGaussian())), agent);
             } else {
                 //also introduce randomness for taking a random rotation, more exploration and helps against agent collisions
-                Action rotate = Math.random() < 0.95 ? direction.getAction() : randomDirection().getAction();
+                Action rotate = rand.nextDouble() < 0.95 ? direction.getAction() : randomDirection(rand).getAction();
                 return new Move(rotate, 0, agent);
             }
         }
@@ -21,7 +21,6 @@ import static group.seven.utils.Methods.print;
 public class Astar implements Algorithm {
 
     private final Scenario scenario;
-    Tile[][] map;// = TILE_MAP.getMap();
 
     //Manhattan distance heurstic -> good if only 4 directions
     //Euclidean distance (straigtht line) -> maybe good for estimating target based one direction, angle or whatever
@@ -45,7 +44,6 @@ public class Astar implements Algorithm {
 
     public Astar(Agent agent) {
         this.agent = agent;
-        map = agent.scenario.getTileMap().getMap();
         scenario = agent.scenario;
     }
 
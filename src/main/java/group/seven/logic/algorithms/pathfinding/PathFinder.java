@@ -10,7 +10,7 @@ import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
 import group.seven.model.agents.Move;
 import group.seven.model.environment.TileMap;
-import group.seven.model.environment.TileNode;
+import group.seven.model.environment.KnowledgeMap;
 
 import java.util.*;
 
@@ -32,7 +32,7 @@ public class PathFinder implements Algorithm {
     //List<Move> movesLeft; // moves left to do
     Queue<Node> open;
     Set<Node> closed;
-    private TileNode[][] internalMap; // agent representation
+    private KnowledgeMap internalMap; // agent representation
 
     TileMap tileMap;
     Rectangle targetArea;
@@ -45,7 +45,7 @@ public class PathFinder implements Algorithm {
         this.player = player;
         XY currentXY = player.getXY();
 
-        internalMap = player.getMap();
+        internalMap = player.getKnowledgeMap();
         trajectory = new LinkedList<>();
 
         tileMap = player.scenario.TILE_MAP;
@@ -73,7 +73,7 @@ public class PathFinder implements Algorithm {
     }
 
     public List<Move> findPath() {
-        internalMap = player.getMap();
+        internalMap = player.getKnowledgeMap();
         Queue<Node> openedNodes = new PriorityQueue<>();
         List<Node> closedNodes = new LinkedList<>();
         currentNode.updateCost();
@@ -92,7 +92,7 @@ public class PathFinder implements Algorithm {
 
             for (Node neighbor : neighbours(node)) {
 //                XY pos = neighbor.pos.getXY();
-                if (closedNodes.contains(neighbor) || internalMap[node.getX()][node.getY()] == null || internalMap[node.getX()][node.getY()].getType() == WALL) {
+                if (closedNodes.contains(neighbor) || !internalMap.isKnown(node.getX(), node.getY()) || internalMap.getType(node.getX(), node.getY()) == WALL) {
                     continue;
                 }
 
@@ -117,11 +117,10 @@ public class PathFinder implements Algorithm {
         int y = node.getY();
         List<Node> neighbours = new ArrayList<>(5);
         for (int i = 0; i < 4; i++) {
-            Node neighbor = new Node(new XY(x + additions[i][0], y + additions[i][1]), this);
-            if (!outOfBounds(neighbor.getX(), neighbor.getY()) && internalMap[neighbor.getX()][neighbor.getY()] != null) {
-                if (!neighbours.contains(neighbor))
-                    neighbours.add(neighbor);
-            }
+            int nx = x + additions[i][0], ny = y + additions[i][1];
+            //only create nodes for the cells that can be walked to
+            if (!outOfBounds(nx, ny) && internalMap.isKnown(nx, ny))
+                neighbours.add(new Node(new XY(nx, ny), this));
         }
         return neighbours;
     }
@@ -148,7 +147,7 @@ public class PathFinder implements Algorithm {
 //    }
 
     public boolean outOfBounds(int x, int y) {
-        return x < 0 || x >= internalMap.length || y < 0 || y >= internalMap[0].length;
+        return !internalMap.isInBounds(x, y);
     }
 
     // convert path of nodes into path of actions and then convert it into path of moves
@@ -151,12 +151,12 @@ public class Predator implements Algorithm {
             });
         }
 
-        for (Agent agent : tileMap.agents) {
-            if (agent instanceof Guard g) {
-                if (fov.stream().map(Tile::getXY).toList().contains(g.getXY())) {
-                    n.lastSeenGuard = agent.getTime();
-                    System.out.println("Spotted a guard");
-                }
+        List<XY> seen = fov.stream().map(Tile::getXY).toList();
+        for (int i = 0; i < scenario.agents.numGuards(); i++) {
+            Guard g = scenario.agents.getGuard(i);
+            if (seen.contains(g.getXY())) {
+                n.lastSeenGuard = g.getTime();
+                System.out.println("Spotted a guard");
             }
         }
 
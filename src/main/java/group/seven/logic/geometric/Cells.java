@@ -0,0 +1,88 @@
+package group.seven.logic.geometric;
+
+import group.seven.enums.Cardinal;
+
+/**
+ * Static helpers for coordinates packed into primitives, so that hot loops can work without creating XY records.
+ * <ul>
+ *     <li>a cell id packs a tile of a map as {@code y * width + x}, only valid for 0 <= x < width and y >= 0.
+ *     This is the index the TileMap and the knowledge maps use for their arrays</li>
+ *     <li>a packed point packs any pair of ints into a long, x in the high half and y in the low half, e.g. for
+ *     coordinates relative to an agent's frame, which can be negative</li>
+ * </ul>
+ * XY stays the convenience type, see {@link XY#cellId(int)} and {@link XY#packed()}.
+ */
+public final class Cells {
+    public static final int NONE = -1;
+
+    private Cells() {
+    }
+
+    public static int id(int x, int y, int width) {
+        return y * width + x;
+    }
+
+    public static int id(XY xy, int width) {
+        return id(xy.x(), xy.y(), width);
+    }
+
+    public static int x(int cell, int width) {
+        return cell % width;
+    }
+
+    public static int y(int cell, int width) {
+        return cell / width;
+    }
+
+    public static XY toXY(int cell, int width) {
+        return new XY(x(cell, width), y(cell, width));
+    }
+
+    /**
+     * @return whether the cell id is a tile of a width x height map
+     */
+    public static boolean isInBounds(int cell, int width, int height) {
+        return cell >= 0 && cell < width * height;
+    }
+
+    /**
+     * @return id of the cell one step in the direction, {@link #NONE} if that step leaves the width x height map
+     */
+    public static int step(int cell, Cardinal direction, int width, int height) {
+        int x = x(cell, width) + direction.unitVector.x(), y = y(cell, width) + direction.unitVector.y();
+        return x < 0 || y < 0 || x >= width || y >= height ? NONE : id(x, y, width);
+    }
+
+    /**
+     * @return manhattan distance between two cells of a map of the given width
+     */
+    public static int manhattan(int a, int b, int width) {
+        return Math.abs(x(a, width) - x(b, width)) + Math.abs(y(a, width) - y(b, width));
+    }
+
+    //--------<Packed points>---------//
+
+    public static long pack(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+    public static long pack(XY xy) {
+        return pack(xy.x(), xy.y());
+    }
+
+    public static int packedX(long point) {
+        return (int) (point >> 32);
+    }
+
+    public static int packedY(long point) {
+        return (int) point;
+    }
+
+    public static long translate(long point, int dx, int dy) {
+        return pack(packedX(point) + dx, packedY(point) + dy);
+    }
+
+    public static XY toXY(long point) {
+        return new XY(packedX(point), packedY(point));
+    }
+}
@@ -53,6 +53,14 @@ public class Pythagoras {
         return orientationToGoal;
     }
 
+    /**
+     * Same as {@link #angleFromAgentToTarget(XY, XY)}, without creating points
+     */
+    public static double angleFromAgentToTarget(int targetX, int targetY, int agentX, int agentY) {
+        double angle = Math.toDegrees(Math.atan2(agentY - targetY, targetX - agentX));
+        return angle < 0 ? angle + 360 : angle;
+    }
+
     public static double angleFromAgentToTarget(XY target, XY agent) {
         Point2D point = new Vector(target.x() - agent.x(), target.y() - agent.y());
         Point2D norm = point.normalize();
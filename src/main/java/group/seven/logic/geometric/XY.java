@@ -54,6 +54,28 @@ public record XY(int x, int y) implements VectorPoint {
         return this;
     }
 
+    /**
+     * @return the cell id of this point on a map of the given width, see {@link Cells}
+     */
+    public int cellId(int width) {
+        return Cells.id(x, y, width);
+    }
+
+    public static XY fromCellId(int cell, int width) {
+        return Cells.toXY(cell, width);
+    }
+
+    /**
+     * @return this point packed into a long, see {@link Cells#pack(int, int)}
+     */
+    public long packed() {
+        return Cells.pack(x, y);
+    }
+
+    public static XY fromPacked(long point) {
+        return Cells.toXY(point);
+    }
+
     public String asNodeID() {
         return x + ":" + y;
     }
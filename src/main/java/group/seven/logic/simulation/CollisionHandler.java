@@ -7,7 +7,6 @@ import group.seven.model.agents.Agent;
 import group.seven.model.agents.Move;
 import group.seven.model.environment.Component;
 import group.seven.model.environment.Scenario;
-import javafx.geometry.Point2D;
 
 import java.util.List;
 
@@ -64,7 +63,7 @@ public class CollisionHandler {
                 //int x = agent.getX();
                 //int y = agent.getY();
                 XY position = agent.getXY();
-                XY targetPos = new XY(position.x(), position.y());
+                XY targetPos = position;
                 targetPos = targetPos.add(agent.getDirection().unitVector.x(), agent.getDirection().unitVector.y());
                 int distance = Math.abs((position.x() - targetPos.x()) + (position.y() - targetPos.y()));
                 if (i < move.distance()) {
@@ -107,21 +106,20 @@ public class CollisionHandler {
     }
 
     public static boolean checkAgents(Agent agent, XY target, Scenario s) {
-        for (Agent other : s.TILE_MAP.agents) {
-            if (agent != other) {
-                if (other.getXY() == target) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        Agent other = s.TILE_MAP.getAgentAt(target);
+        return other != null && other != agent;
     }
 
     public static boolean check(TileType type, XY targetPosition, Scenario s) {
-        return s.TILE_MAP.getTile(targetPosition.x(), targetPosition.y()).getType() == type;
+        return s.TILE_MAP.getType(targetPosition.x(), targetPosition.y()) == type;
     }
 
     public static Component getComponent(XY pos, TileType type, Scenario s) {
+        //the component on the tile, if the map still agrees with it
+        Component component = s.TILE_MAP.componentAt(pos.x(), pos.y());
+        if (component != null && component.type() == type)
+            return component;
+
         switch (type) {
             case PORTAL -> {
                 return getComponentFromList(pos, s.portals);
@@ -135,10 +133,8 @@ public class CollisionHandler {
     }
 
     public static Component getComponentFromList(XY pos, List<Component> components) {
-        //You can use JavaFX Rectangle and Point2D
-        Point2D agentPos = new Point2D(pos.x(), pos.y());
         for (Component component : components)
-            if (component.area().contains(agentPos))
+            if (component.contains(pos))
                 return component;
 
         /*
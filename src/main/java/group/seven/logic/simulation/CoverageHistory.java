@@ -0,0 +1,65 @@
+package group.seven.logic.simulation;
+
+/**
+ * Ring buffer with the guard and intruder coverage of the last {@code capacity} time steps.
+ * Once full, recording a new step overwrites the oldest one.
+ */
+public class CoverageHistory {
+    private final int[] steps;
+    private final double[] guardCoverage;
+    private final double[] intruderCoverage;
+    private int next = 0;
+    private int size = 0;
+
+    public CoverageHistory(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        steps = new int[capacity];
+        guardCoverage = new double[capacity];
+        intruderCoverage = new double[capacity];
+    }
+
+    public void record(int step, double guard, double intruder) {
+        steps[next] = step;
+        guardCoverage[next] = guard;
+        intruderCoverage[next] = intruder;
+        next = (next + 1) % steps.length;
+        if (size < steps.length)
+            size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return steps.length;
+    }
+
+    public void clear() {
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * @param i index of the sample, 0 is the oldest one still stored
+     * @return time step at which the sample was recorded
+     */
+    public int getStep(int i) {
+        return steps[index(i)];
+    }
+
+    public double getGuardCoverage(int i) {
+        return guardCoverage[index(i)];
+    }
+
+    public double getIntruderCoverage(int i) {
+        return intruderCoverage[index(i)];
+    }
+
+    private int index(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("sample " + i + " of " + size);
+        return (next - size + i + steps.length) % steps.length;
+    }
+}
@@ -0,0 +1,560 @@
+package group.seven.logic.simulation;
+
+import group.seven.enums.AlgorithmType;
+import group.seven.enums.GameMode;
+import group.seven.enums.Status;
+import group.seven.enums.TileType;
+import group.seven.logic.geometric.XY;
+import group.seven.model.agents.Agent;
+import group.seven.model.agents.AgentRegistry;
+import group.seven.model.agents.Guard;
+import group.seven.model.agents.Intruder;
+import group.seven.model.agents.Move;
+import group.seven.model.environment.Scenario;
+import group.seven.model.environment.Tile;
+import group.seven.utils.Config;
+import group.seven.utils.Tuple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.zip.DeflaterOutputStream;
+
+import static group.seven.enums.Action.MOVE_FORWARD;
+import static group.seven.enums.TileType.GUARD;
+import static group.seven.enums.TileType.INTRUDER;
+import static group.seven.utils.Methods.print;
+
+/**
+ * Headless game loop. Holds the whole state of one run and advances it one time step at a time.
+ * Does not depend on the JavaFX toolkit or on the GUI flags in {@link Config}, so it can be used
+ * for batch runs, benchmarks or embedded in other tools. The GUI drives it through {@link Simulator}.
+ */
+public class SimulationEngine {
+    public static final int TIME_NEEDED_IN_TARGET_AREA_INTRUDER = 5;
+    public static final int CATCH_INTRUDER_IN_SIGHT = 14;
+    public final double timeStep = Config.TIME_STEP;
+
+    private final Supplier<Scenario> scenarioSource;
+    private final boolean reusable;
+    private Scenario scenario;
+    private Status status;
+    private int maxTime = Config.MAX_GAME_LENGTH;
+    private int count;
+    private int rotations;
+    private double elapsedTimeSteps;
+    private boolean intruderWin;
+    private SplittableRandom spawnRandom;
+    private SplittableRandom pheromoneRandom;
+    private ForkJoinPool decisionPool = null;
+    private CoverageHistory coverageHistory = null;
+    //intruders caught by the guards' vision while it is being updated
+    private final List<Intruder> sightings = new ArrayList<>();
+    private boolean sensing = false;
+    //the moves the agents decided on this time step, reused across time steps
+    private Move[] moves = new Move[0];
+
+    /**
+     * Creates an engine that asks the source for a fresh Scenario on every {@link #reset()}.
+     *
+     * @param scenarioSource supplies a newly built Scenario, e.g. {@code () -> new ScenarioBuilder(file).build()}
+     */
+    public SimulationEngine(Supplier<Scenario> scenarioSource) {
+        this(scenarioSource, true, null);
+    }
+
+    /**
+     * Creates an engine for an already built Scenario. The scenario is consumed by the run,
+     * so it can only be reset once (which happens here).
+     *
+     * @param scenario scenario to simulate
+     */
+    public SimulationEngine(Scenario scenario) {
+        this(() -> scenario, false, null);
+    }
+
+    /**
+     * Creates an engine that continues a run from a snapshot, independently of the run the snapshot was taken from.
+     *
+     * @param scenario newly built scenario of the map the snapshot was taken on
+     * @param snapshot state to continue from
+     * @throws IllegalArgumentException if the snapshot was taken on a different map
+     */
+    public SimulationEngine(Scenario scenario, Snapshot snapshot) {
+        this(() -> scenario, false, snapshot);
+    }
+
+    private SimulationEngine(Supplier<Scenario> scenarioSource, boolean reusable, Snapshot snapshot) {
+        this.scenarioSource = scenarioSource;
+        this.reusable = reusable;
+        reset(snapshot);
+    }
+
+    /**
+     * Starts a new run: gets a new Scenario from the source, spawns the agents and clears all counters.
+     */
+    public void reset() {
+        reset(null);
+    }
+
+    /**
+     * Starts a new run on a new Scenario from the source, continuing from the state of the snapshot.
+     *
+     * @param snapshot state to continue from, taken on the map of the source
+     */
+    public void restore(Snapshot snapshot) {
+        reset(Objects.requireNonNull(snapshot));
+    }
+
+    private void reset(Snapshot snapshot) {
+        if (scenario != null && !reusable)
+            throw new IllegalStateException("engine was created for a single scenario and cannot be reset");
+
+        scenario = scenarioSource.get();
+        if (snapshot != null)
+            snapshot.checkCompatible(scenario);
+        count = 0;
+        rotations = 0;
+        elapsedTimeSteps = 0;
+        intruderWin = false;
+        spawnRandom = scenario.RANDOM.split();
+        pheromoneRandom = scenario.RANDOM.split();
+        scenario.TILE_MAP.getPheromoneField().setRandom(pheromoneRandom);
+        scenario.sightListener = this::intruderSighted;
+        sightings.clear();
+        status = Status.RUNNING;
+        if (snapshot == null)
+            spawnAgents(scenario.GUARD_GAME_MODE);
+        else
+            restoreState(snapshot);
+        if (coverageHistory != null)
+            coverageHistory.clear();
+    }
+
+    /**
+     * Captures the current state of the run, to be restored later or into many independent runs.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(count);
+            out.writeInt(rotations);
+            out.writeDouble(elapsedTimeSteps);
+            out.writeBoolean(intruderWin);
+            out.writeByte(status.ordinal());
+            out.writeInt(maxTime);
+            out.writeInt(scenario.INTRUDERS_CAUGHT);
+            out.writeInt(scenario.INTRUDERS_AT_TARGET);
+            out.writeByte(scenario.GUARD_ALGORITHM.ordinal());
+            out.writeByte(scenario.INTRUDER_ALGORITHM.ordinal());
+
+            //agents are recreated in ID order at their spawn, so their frames and IDs stay the same
+            Agent[] agents = scenario.TILE_MAP.agents;
+            out.writeInt(agents.length);
+            for (Agent agent : agents) {
+                out.writeByte(agent.getType().ordinal());
+                out.writeInt(agent.getGlobalSpawn().x());
+                out.writeInt(agent.getGlobalSpawn().y());
+            }
+            scenario.TILE_MAP.writeState(out);
+            for (Agent agent : agents)
+                agent.writeState(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Snapshot(scenario, count, bytes.toByteArray());
+    }
+
+    private void restoreState(Snapshot snapshot) {
+        try (DataInputStream in = snapshot.open()) {
+            count = in.readInt();
+            rotations = in.readInt();
+            elapsedTimeSteps = in.readDouble();
+            intruderWin = in.readBoolean();
+            Status restoredStatus = Status.values()[in.readByte()];
+            maxTime = in.readInt();
+            int intrudersCaught = in.readInt();
+            int intrudersAtTarget = in.readInt();
+            scenario.GUARD_ALGORITHM = AlgorithmType.values()[in.readByte()];
+            scenario.INTRUDER_ALGORITHM = AlgorithmType.values()[in.readByte()];
+
+            Agent[] agents = new Agent[in.readInt()];
+            for (int i = 0; i < agents.length; i++)
+                agents[i] = addAgent(TileType.values()[in.readByte()], in.readInt(), in.readInt());
+            scenario.TILE_MAP.readState(in);
+            for (Agent agent : agents)
+                agent.readState(in);
+
+            //overwrites what restoring the caught intruders counted
+            scenario.INTRUDERS_CAUGHT = intrudersCaught;
+            scenario.INTRUDERS_AT_TARGET = intrudersAtTarget;
+            status = restoredStatus;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("corrupt snapshot", e);
+        }
+    }
+
+    /**
+     * Advances the simulation by one time step, unless the game is already over.
+     *
+     * @return the status after the step
+     */
+    public Status step() {
+        if (isGameOver())
+            return status;
+
+        count++;
+        update();
+        elapsedTimeSteps += timeStep;
+        for (Agent a : scenario.agents)
+            a.setTime(elapsedTimeSteps);
+        if (coverageHistory != null)
+            coverageHistory.record(count, scenario.TILE_MAP.getGuardCoverage(), scenario.TILE_MAP.getIntruderCoverage());
+
+        if (status.type != Status.GAME_OVER && count >= maxTime)
+            status = Status.GAME_OVER;
+
+        if (isGameOver()) {
+            scenario.storeTimeTaken(count);
+            scenario.storeIntruderWin(intruderWin);
+        }
+        return status;
+    }
+
+    /**
+     * Advances the simulation by (at most) n time steps. Stops early if the game ends.
+     *
+     * @param n number of steps
+     * @return the status after the last executed step
+     */
+    public Status stepN(int n) {
+        for (int i = 0; i < n && !isGameOver(); i++)
+            step();
+        return status;
+    }
+
+    /**
+     * Runs until a team wins or the maximum game length is reached.
+     *
+     * @return the final status
+     */
+    public Status runToCompletion() {
+        while (!isGameOver())
+            step();
+        return status;
+    }
+
+    /**
+     * Collects each agent's moves, resolves collisions, updates their vision and applies it to the model.
+     */
+    protected void update() {
+        sensing = true;
+        try {
+            for (Agent agent : scenario.agents) {
+                agent.updateVision();
+                agent.updateMap();
+            }
+        } finally {
+            sensing = false;
+        }
+
+        for (Intruder intruder : sightings) {
+            intruder.killIntruder();
+            checkGameOver(scenario.GUARD_GAME_MODE, GUARD);
+        }
+        sightings.clear();
+
+        for (Intruder intruder : scenario.intrudersInTarget) {
+            int inTargetAreaSince = intruder.intruderInTargetArea();
+            print("Intruder " + intruder.getID() + " in target area since: " + inTargetAreaSince);
+            if (inTargetAreaSince >= TIME_NEEDED_IN_TARGET_AREA_INTRUDER
+                    && checkGameOver(scenario.INTRUDER_GAME_MODE, INTRUDER)) {
+                intruderWin = true;
+            }
+        }
+
+        List<Move> positionChangeMoves = new LinkedList<>();
+        List<Move> rotationChangeMoves = new LinkedList<>();
+        AgentRegistry agents = scenario.agents;
+        decideMoves(agents);
+        for (int i = 0; i < agents.size(); i++) {
+            Move m = moves[i];
+            if (m.action() == MOVE_FORWARD)
+                positionChangeMoves.add(m);
+            else
+                rotationChangeMoves.add(m);
+            rotations++;
+        }
+
+        CollisionHandler.handle(positionChangeMoves, scenario);
+        for (Move move : rotationChangeMoves) {
+            move.agent().executeTurn(move);
+            move.agent().clearVision();
+        }
+        updatePheromones();
+        updateAllAgents();
+    }
+
+    /**
+     * Called by the guards' vision for every intruder on an observed tile. Only the sightings of the sensing phase
+     * at the start of a time step count, and only within the first {@link #CATCH_INTRUDER_IN_SIGHT} observed tiles
+     * (the same ones {@link #checkIntruderInSight} looks at).
+     */
+    private void intruderSighted(Agent guard, Agent intruder, int index) {
+        if (sensing && index <= CATCH_INTRUDER_IN_SIGHT)
+            sightings.add((Intruder) intruder);
+    }
+
+    /**
+     * Asks every agent for its next move. With a decision pool the agents decide concurrently. Either way they only
+     * read the state left by the previous time step: what they write to the shared environment is held back and
+     * applied afterwards in the order of the registry. The moves are stored in {@link #moves} in that order too, so a
+     * run with a pool is the same as one without, no matter how the threads were scheduled.
+     *
+     * @param agents the live agents, in the order of {@link AgentRegistry#get(int)}: guards, then intruders, each in
+     *               order of registration except that a caught intruder's place goes to the last intruder
+     */
+    private void decideMoves(AgentRegistry agents) {
+        int count = agents.size();
+        if (moves.length < count)
+            moves = new Move[count];
+        Move[] moves = this.moves;
+        for (int i = 0; i < count; i++)
+            agents.get(i).setDeferEffects(true);
+        try {
+            if (decisionPool == null || count < 2) {
+                for (int i = 0; i < count; i++)
+                    moves[i] = agents.get(i).calculateMove();
+            } else {
+                decisionPool.submit(() -> IntStream.range(0, count).parallel()
+                        .forEach(i -> moves[i] = agents.get(i).calculateMove())).join();
+            }
+        } finally {
+            for (int i = 0; i < count; i++) {
+                Agent agent = agents.get(i);
+                agent.setDeferEffects(false);
+                agent.flushEffects();
+            }
+        }
+    }
+
+    /**
+     * Applies a given list of moves instead of asking the agents' algorithms. Used for testing.
+     *
+     * @param allMoves moves to apply this time step
+     */
+    public void update(List<Move> allMoves) {
+        //List of Moves where the agent's want to move forward (change position). Previous moves List is unaffected.
+        List<Move> positionChangeMoves = allMoves.stream().filter(move -> move.action() == MOVE_FORWARD).toList();
+        List<Move> rotationChangeMoves = allMoves.stream().filter(move -> move.action() != MOVE_FORWARD).toList();
+
+        CollisionHandler.handle(positionChangeMoves, scenario);
+        for (Move move : rotationChangeMoves) {
+            move.agent().executeTurn(move);
+        }
+        updateAllAgents();
+    }
+
+    private boolean checkGameOver(GameMode gameMode, TileType agent) {
+        if (agent == GUARD) {
+            switch (gameMode) {
+                case SINGLE_INTRUDER_CAUGHT -> {
+                    status = Status.GUARD_WIN;
+                    return true;
+                }
+                case ALL_INTRUDERS_CAUGHT -> {
+                    if (scenario.INTRUDERS_CAUGHT == scenario.NUM_INTRUDERS) {
+                        status = Status.GUARD_WIN;
+                        return true;
+                    }
+                }
+            }
+        }
+
+        if (agent == INTRUDER) {
+            switch (gameMode) {
+                case ONE_INTRUDER_AT_TARGET -> {
+                    status = Status.INTRUDER_WIN;
+                    return true;
+                }
+                case ALL_INTRUDER_AT_TARGET -> {
+                    if (scenario.INTRUDERS_AT_TARGET == scenario.NUM_INTRUDERS) {
+                        status = Status.INTRUDER_WIN;
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void updatePheromones() {
+        //decay itself is applied when a strength is read, see PheromoneField
+        scenario.TILE_MAP.getPheromoneField().tick();
+    }
+
+    private void updateAllAgents() {
+        for (Agent agent : scenario.agents) {
+            agent.update();
+        }
+    }
+
+    private void spawnAgents(GameMode gameMode) {
+        print(gameMode);
+        if (gameMode == GameMode.EXPLORATION)
+            spawnAgents(GUARD);
+        else {
+            spawnAgents(GUARD);
+            spawnAgents(INTRUDER);
+        }
+        updateAllAgents();
+    }
+
+    private void spawnAgents(TileType agentType) {
+        XY point;
+        int dx, dy, number;
+        switch (agentType) {
+            case GUARD -> {
+                point = new XY(scenario.guardSpawnArea.area().getX(), scenario.guardSpawnArea.area().getY());
+                dx = scenario.guardSpawnArea.area().getIntWidth();
+                dy = scenario.guardSpawnArea.area().getIntHeight();
+                number = scenario.NUM_GUARDS;
+            }
+            case INTRUDER -> {
+                point = new XY(scenario.intruderSpawnArea.area().getX(), scenario.intruderSpawnArea.area().getY());
+                dx = scenario.intruderSpawnArea.area().getIntWidth();
+                dy = scenario.intruderSpawnArea.area().getIntHeight();
+                number = scenario.NUM_INTRUDERS;
+            }
+            default -> {
+                point = new XY(0, 0);
+                dx = 0;
+                dy = 0;
+                number = 0;
+            }
+        }
+
+        for (int i = 0; i < number; i++) {
+            int x = point.x() + (int) (dx * spawnRandom.nextDouble());
+            int y = point.y() + (int) (dy * spawnRandom.nextDouble());
+
+            Agent agent = addAgent(agentType, x, y);
+            print("added " + agentType.name() + " : " + agent.getID() + " at " + agent.getX() + " " + agent.getY());
+        }
+    }
+
+    private Agent addAgent(TileType agentType, int x, int y) {
+        Agent agent = switch (agentType) {
+            case INTRUDER -> new Intruder(x, y, scenario, scenario.INTRUDER_ALGORITHM);
+            case GUARD -> new Guard(x, y, scenario, scenario.GUARD_ALGORITHM);
+            default -> throw new IllegalStateException("Unexpected value: " + agentType);
+        };
+        agent.initializeInitialTile();
+        scenario.TILE_MAP.addAgent(agent);
+        scenario.agents.add(agent);
+        return agent;
+    }
+
+    /**
+     * Coverage from the exploration counters of the TileMap, which are kept up to date by the vision.
+     *
+     * @return percentage of the non-wall tiles seen by the guards (a) and by the intruders (b)
+     */
+    public Tuple<Double, Double> calculateCoverage() {
+        return new Tuple<>(scenario.TILE_MAP.getGuardCoverage(), scenario.TILE_MAP.getIntruderCoverage());
+    }
+
+    public boolean checkIntruderInSight(Agent guard, Agent intruder) {
+        List<Tile> visionGuard = guard.getSeenTiles();
+        XY intruderTile = intruder.getXY();
+        int counter = 0;
+        for (Tile tile : visionGuard) {
+            if (tile.getXY().equals(intruderTile) && counter <= CATCH_INTRUDER_IN_SIGHT) {
+                return true;
+            }
+            counter++;
+        }
+        return false;
+    }
+
+    public boolean isGameOver() {
+        return status.type == Status.GAME_OVER;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getRotations() {
+        return rotations;
+    }
+
+    public double getElapsedTimeSteps() {
+        return elapsedTimeSteps;
+    }
+
+    public boolean isIntruderWin() {
+        return intruderWin;
+    }
+
+    public int getMaxTime() {
+        return maxTime;
+    }
+
+    public SimulationEngine setMaxTime(int maxTime) {
+        this.maxTime = maxTime;
+        return this;
+    }
+
+    public CoverageHistory getCoverageHistory() {
+        return coverageHistory;
+    }
+
+    /**
+     * Records the coverage after every time step, keeping the last {@code capacity} steps.
+     *
+     * @param capacity number of steps to keep, 0 to stop recording
+     * @return this engine
+     */
+    public SimulationEngine setCoverageHistory(int capacity) {
+        coverageHistory = capacity > 0 ? new CoverageHistory(capacity) : null;
+        return this;
+    }
+
+    public ForkJoinPool getDecisionPool() {
+        return decisionPool;
+    }
+
+    /**
+     * Lets the agents decide their moves in parallel on the given pool, e.g. {@link ForkJoinPool#commonPool()}.
+     * Collisions are still resolved one move at a time, in the order of {@link Scenario#agents}.
+     *
+     * @param decisionPool pool to decide the moves on, or null to decide them one after another
+     * @return this engine
+     */
+    public SimulationEngine setDecisionPool(ForkJoinPool decisionPool) {
+        this.decisionPool = decisionPool;
+        return this;
+    }
+}
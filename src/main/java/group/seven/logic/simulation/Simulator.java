@@ -1,97 +1,65 @@
 package group.seven.logic.simulation;
 
 import group.seven.Main;
-import group.seven.enums.GameMode;
 import group.seven.enums.Status;
-import group.seven.enums.TileType;
 import group.seven.gui.GameEnd;
 import group.seven.gui.SimulationScreen;
-import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
-import group.seven.model.agents.Guard;
-import group.seven.model.agents.Intruder;
 import group.seven.model.agents.Move;
-import group.seven.model.environment.Pheromone;
 import group.seven.model.environment.Scenario;
-import group.seven.model.environment.Tile;
 import group.seven.utils.Config;
 import group.seven.utils.Tuple;
 import javafx.animation.AnimationTimer;
 import javafx.scene.Scene;
 
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
-
-import static group.seven.enums.Action.MOVE_FORWARD;
-import static group.seven.enums.TileType.*;
-import static group.seven.utils.Methods.print;
 
+/**
+ * JavaFX front-end of the simulation. All the game logic lives in {@link SimulationEngine},
+ * this class only ticks the engine from the AnimationTimer and renders the result.
+ * Without the GUI the engine is simply run to completion.
+ */
 public class Simulator extends AnimationTimer {
-    public static final int maxTime = Config.MAX_GAME_LENGTH;
-    public static Random rand = new Random();
-    public static Status status;
-    public final double timeStep = 0.1; //Or should get from Config or from Scenario, idk
+    public static final int GUI_MAX_TIME = 100000;
+    public Status status;
+    public final double timeStep;
     public boolean guiMode = Config.GUI_ON;
-    protected int TIME_NEEDED_IN_TARGET_AREA_INTRUDER = 5;
-    protected final int catchIntruderInSight = 14;
     public Scenario scenario;
     public double elapsedTimeSteps;
+    protected final SimulationEngine engine;
     private SimulationScreen display = null;
-    protected int count = 0;
     protected long prev; //used for frame-rate calculation (eventually)
-    protected int rotations = 0;
-    private boolean gameOver = false;
-    private boolean intruderWin = false;
 
     public Simulator(Scenario scenario, boolean experiment) {
-        this.scenario = scenario;
-        rand = new Random();
         prev = System.nanoTime();
-        spawnAgents(scenario.GUARD_GAME_MODE);
-        elapsedTimeSteps = 0;
-        status = Status.RUNNING;
+        engine = new SimulationEngine(scenario);
+        this.scenario = engine.getScenario();
+        timeStep = engine.timeStep;
+        status = engine.getStatus();
         guiMode = false;
     }
 
     public Simulator(Scenario scenario) {
-        this.scenario = scenario;
-        rand = new Random();
         prev = System.nanoTime();
-        spawnAgents(scenario.GUARD_GAME_MODE);
-        elapsedTimeSteps = 0;
+        engine = new SimulationEngine(scenario);
+        this.scenario = engine.getScenario();
+        timeStep = engine.timeStep;
+        status = engine.getStatus();
 
         if (Config.GUI_ON) {
+            engine.setMaxTime(GUI_MAX_TIME);
             display = new SimulationScreen(this);
             Main.stage.setScene(new Scene(display));
             Main.stage.centerOnScreen();
-        }
-
-        if (Config.GUI_ON) {
             display.render();
-        }
-        if (Config.GUI_ON) {
             start();
+        } else {
+            status = engine.runToCompletion();
         }
-
-        if (!Config.GUI_ON) {
-            runSimulation();
-        }
-
-        status = Status.RUNNING;
     }
 
-    /**
-     * This is the main simulation loop, similar too {@link Simulator#handle(long)}
-     * The only difference is that it runs without the GUI.
-     */
-    private void runSimulation() {
-        while (count < maxTime && !gameOver) {
-            count++;
-            update();
-        }
-        scenario.storeTimeTaken(count);
-        scenario.storeIntruderWin(intruderWin);
+    public SimulationEngine getEngine() {
+        return engine;
     }
 
     public void pause() {
@@ -99,76 +67,37 @@ public class Simulator extends AnimationTimer {
         status = Status.PAUSED;
     }
 
+    @Override
+    public void start() {
+        super.start();
+        status = engine.getStatus();
+    }
+
     /**
-     * Main Simulation Loop. Executed every "timeStep"
-     * First we update the model by calculating and applying all the agent's moves (if legal),
-     * Then update the GUI to reflect the state of the model after the timeStep.
+     * Main Simulation Loop. Executed every frame.
+     * Advances the engine by one time step, then updates the GUI to reflect the state of the model.
      *
      * @param now current time in nanoseconds. Can be used for frame-rate calculation
      */
     @Override
     public void handle(long now) {
-        count++;
-
-        update();           //update model
-        if (guiMode) {
-            display.render();   //update GUI
-            elapsedTimeSteps += timeStep; //update elapsed time steps
-        }
-        System.out.print("\rElapsed Time Steps: " + elapsedTimeSteps + "rotation count: " + rotations + "\t framerate: " + ((double) now - prev) / 1e9);
-
-
-//        //Goal: update only every second. I realize this is not what's happening here though since handle is being executed ~60x per second
-//        if (((int) elapsedTimeSteps) % 10 == 0) {
-//            Tuple<Double, Double> coverage = calculateCoverage();
-//            display.updateStats(elapsedTimeSteps, coverage); //guard coverage, will move to SimulationScreen to handle prolly
-//        }
-
-        for (Agent a : scenario.agents)
-            a.setTime(elapsedTimeSteps);
-
-        //TODO: implement GameOver condition checking
-        if (count > 100000) stop();
-
-        prev = System.nanoTime();
-    }
-
-
-    private boolean checkGameOver(GameMode gameMode, TileType agent) {
-        //print(gameMode.toString());
-        if (agent == GUARD) {
-            switch (gameMode) {
-                case SINGLE_INTRUDER_CAUGHT -> {
-                    status = Status.GUARD_WIN;
-                    return true;
-                }
-
-                case ALL_INTRUDERS_CAUGHT -> {
-                    if (scenario.INTRUDERS_CAUGHT == scenario.NUM_INTRUDERS) {
-                        status = Status.GUARD_WIN;
-                        return true;
-                    }
-                }
+        status = engine.step();   //update model
+        elapsedTimeSteps = engine.getElapsedTimeSteps();
+        if (guiMode)
+            display.render();     //update GUI
+        System.out.print("\rElapsed Time Steps: " + elapsedTimeSteps + "rotation count: " + engine.getRotations() + "\t framerate: " + ((double) now - prev) / 1e9);
+
+        if (engine.isGameOver()) {
+            stop();
+            switch (status) {
+                case GUARD_WIN -> System.out.println("GUARDS WON");
+                case INTRUDER_WIN -> System.out.println("INTRUDER WON");
             }
+            if (guiMode && status != Status.GAME_OVER)
+                endSimulation();
         }
 
-        if (agent == INTRUDER) {
-            switch (gameMode) {
-                case ONE_INTRUDER_AT_TARGET -> {
-                    status = Status.INTRUDER_WIN;
-                    return true;
-                }
-
-                case ALL_INTRUDER_AT_TARGET -> {
-                    if (scenario.INTRUDERS_AT_TARGET == scenario.NUM_INTRUDERS) {
-                        status = Status.INTRUDER_WIN;
-                        return true;
-                    }
-                }
-            }
-        }
-
-        return false;
+        prev = System.nanoTime();
     }
 
     protected void endSimulation() {
@@ -187,222 +116,23 @@ public class Simulator extends AnimationTimer {
      * Collects each agent's moves, resolves collisions, updates their vision and applies to the model.
      */
     protected void update() {
-        //TODO: sort list such that rotation moves appear last in list. (Not 100% sure if necessary)
-        //Creates a list of Moves for each agent's calculatedMove.
-        //First filters out null agents, then maps agents to their calculatedMoves, and then collects these Moves into a List
-        //List<Agent> guards = Arrays.stream(TILE_MAP.agents).filter(a -> a.getType() == GUARD).toList();
-        //List<Agent> intruders = Arrays.stream(TILE_MAP.agents).filter(a -> a.getType() == INTRUDER).toList();
-
-
-        for (Agent agent : scenario.getTileMap().agents) {
-            agent.updateVision();
-            agent.updateMap();
-            if (agent.agentType == GUARD) {
-                for (Agent intruder : scenario.TILE_MAP.agents) {
-                    if (intruder.agentType == INTRUDER) {
-                        if (checkIntruderInSight(agent,intruder)) {
-                        //if (agent.getXY().equalsWithinRange(intruder.getXY(), RANGE_TO_CATCH_INTRUDER)) {
-                            ((Intruder) intruder).killIntruder();
-
-                            if (checkGameOver(scenario.GUARD_GAME_MODE, GUARD)) {
-                                if (Config.GUI_ON) {
-                                    System.out.println("GUARDS WON");
-                                    stop();
-                                } else {
-                                    gameOver = true;
-                                }
-                                Agent.IDs = 0;
-                                if (guiMode)
-                                    endSimulation();
-                                //endSimulation();
-                            }
-                        }
-                    }
-                }
-            } else {//if agent is not Guard it has to be an Intruder
-                for (Agent intruder : scenario.TILE_MAP.agents) {
-                    if (intruder.agentType == INTRUDER) {
-                        if (scenario.targetArea.contains(intruder.getXY())) {
-                            int inTargetAreaSince = ((Intruder) intruder).intruderInTargetArea();
-                            if (Config.GUI_ON) {
-                                print("Intruder " + intruder.getID() + " made it to target");
-                                print("In target area since: " + inTargetAreaSince);
-                            }
-                            if (inTargetAreaSince >= TIME_NEEDED_IN_TARGET_AREA_INTRUDER) {
-                                if (checkGameOver(scenario.INTRUDER_GAME_MODE, INTRUDER)) {
-                                    if (Config.GUI_ON) {
-                                        System.out.println("INTRUDER WON");
-                                        stop(); // stops AnimationTimer
-                                    } else {
-                                        gameOver = true;
-                                        intruderWin = true;
-                                    }
-                                    Agent.IDs = 0;
-                                    if (guiMode)
-                                        endSimulation();
-                                }
-                            }
-                        } else {
-                            ((Intruder) intruder).intruderNotInTargetArea(); //reset time in target area counter
-                        }
-                    }
-                }
-            }
-        }
-        //System.out.println("TARGET AREA: "+targetArea.area().contains(intruder.x,intruder.y));
-
-
-        //List<Move> allMoves = new LinkedList<>();
-        List<Move> positionChangeMoves = new LinkedList<>();
-        List<Move> rotationChangeMoves = new LinkedList<>();
-        for (Agent a : scenario.TILE_MAP.agents) {
-            Move m = a.calculateMove();
-            //allMoves.add(m);
-            if (m.action() == MOVE_FORWARD)
-                positionChangeMoves.add(m);
-            else
-                rotationChangeMoves.add(m);
-            rotations++;
-        }
-
-        CollisionHandler.handle(positionChangeMoves, scenario);
-        for (Move move : rotationChangeMoves) {
-            move.agent().executeTurn(move);
-            move.agent().clearVision();
-            //move.agent().updateVision();
-            //move.agent().updateMap();
-        }
-        updatePheromones();
-        updateAllAgents();
-    }
-
-    private void updatePheromones() {
-        for (Pheromone f : scenario.TILE_MAP.getPheromones()) {
-            f.update();
-        }
+        status = engine.step();
+        elapsedTimeSteps = engine.getElapsedTimeSteps();
     }
 
     /**
      * FOR TESTING PURPOSE ONLY
-     * Called every timeStep to update the model.
-     * Collects each agent's moves, resolves collisions, updates their vision and applies to the model.
+     * Applies the given moves instead of the ones calculated by the agents' algorithms.
      */
     public void update(List<Move> allMoves) {
-        //List of Moves where the agent's want to move forward (change position). Previous moves List is unaffected.
-        List<Move> positionChangeMoves = allMoves.stream().filter(move -> move.action() == MOVE_FORWARD).toList();
-        List<Move> rotationChangeMoves = allMoves.stream().filter(move -> move.action() != MOVE_FORWARD).toList();
-
-        CollisionHandler.handle(positionChangeMoves, scenario);
-        for (Move move : rotationChangeMoves) {
-            move.agent().executeTurn(move);
-//            move.agent().clearVision();
-//            move.agent().updateVision();
-        }
-        updateAllAgents();
-    }
-
-    private void spawnAgents(GameMode gameMode) {
-        print(gameMode);
-        if (gameMode == GameMode.EXPLORATION)
-            spawnAgents(GUARD);
-        else {
-            spawnAgents(GUARD);
-            spawnAgents(INTRUDER);
-        }
-        updateAllAgents();
-    }
-
-    private void updateAllAgents() {
-        for (Agent agent : scenario.TILE_MAP.agents) {
-            agent.update();
-        }
-    }
-
-    private void spawnAgents(TileType agentType) {
-        XY point;
-        int dx, dy, number;
-        switch (agentType) {
-            case GUARD -> {
-                point = new XY(scenario.guardSpawnArea.area().getX(), scenario.guardSpawnArea.area().getY());
-                dx = scenario.guardSpawnArea.area().getIntWidth();
-                dy = scenario.guardSpawnArea.area().getIntHeight();
-                number = scenario.NUM_GUARDS;
-            }
-            case INTRUDER -> {
-                point = new XY(scenario.intruderSpawnArea.area().getX(), scenario.intruderSpawnArea.area().getY());
-                dx = scenario.intruderSpawnArea.area().getIntWidth();
-                dy = scenario.intruderSpawnArea.area().getIntHeight();
-                number = scenario.NUM_INTRUDERS;
-            }
-            default -> {
-                point = new XY(0, 0);
-                dx = 0;
-                dy = 0;
-                number = 0;
-            }
-        }
-
-        int i = 0;
-        while (i < number) {
-            int x = point.x() + (int) (dx * Math.random());
-            int y = point.y() + (int) (dy * Math.random());
-
-            Agent agent = switch (agentType) {
-                case INTRUDER -> new Intruder(x, y, scenario, Config.ALGORITHM_INTRUDER);
-                case GUARD -> new Guard(x, y, scenario, Config.ALGORITHM_GUARD);
-                default -> throw new IllegalStateException("Unexpected value: " + agentType);
-                //better throw exception to fail-fast to catch bugs quickly, than to pick our heads later down the line
-            };
-            agent.initializeInitialTile();
-            //agent.updateVision();
-            scenario.TILE_MAP.addAgent(agent);
-            print("added " + agentType.name() + " : " + agent.getID());
-            System.out.println(agent.getType() + ": " + agent.getX() + " " + agent.getY());
-            i++;
-            scenario.agents.add(agent);
-        }
+        engine.update(allMoves);
     }
 
-    //we don't really need to calculate the total grids every time
-    //ideally we just update the coverage when new tiles are explored
-    //and we loop through the map matrix in several locations per timestep which is kinda expensive to do so prolly there's a better way.
-    //also now we have intruder and guard coverages, but not even sure
-    //if necessary to calculate them for this phase (although would be interesting for RQs/experiments)
     public Tuple<Double, Double> calculateCoverage() {
-        int guardSeenGrids = 0;
-        int intruderSeenGrids = 0;
-        double totalGrids = 0;
-        for (int i = 0; i <= scenario.WIDTH; i++) {
-            for (int j = 0; j <= scenario.HEIGHT; j++) {
-                if (!(scenario.TILE_MAP.map[i][j].getType() == WALL)) {
-                    totalGrids++;
-
-                    //for guards
-                    if (scenario.TILE_MAP.map[i][j].getExploredGuard()) {
-                        guardSeenGrids++;
-                    }
-
-                    if (scenario.TILE_MAP.map[i][j].getExploredIntruder()) {
-                        intruderSeenGrids++;
-                    }
-                }
-            }
-        }
-
-        return new Tuple<>((guardSeenGrids / totalGrids) * 100, (intruderSeenGrids / totalGrids) * 100);
+        return engine.calculateCoverage();
     }
 
     public boolean checkIntruderInSight(Agent guard, Agent intruder) {
-        List<Tile> visionGuard = guard.getSeenTiles();
-        XY intruderTile = intruder.getXY();
-        int counter = 0;
-        for (Tile tile : visionGuard) {
-            if (tile.getXY().equals(intruderTile) && counter <= catchIntruderInSight) {
-                return true;
-            }
-            counter++;
-        }
-        return false;
+        return engine.checkIntruderInSight(guard, intruder);
     }
 }
-
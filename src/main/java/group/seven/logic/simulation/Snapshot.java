@@ -0,0 +1,128 @@
+package group.seven.logic.simulation;
+
+import group.seven.model.environment.Scenario;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compressed binary copy of the mutable state of a running simulation, taken with {@link SimulationEngine#snapshot()}:
+ * the exploration of the map, pheromones and markers, the pose, seen tiles and internal map of every agent,
+ * and the plans of their algorithms.
+ * <p>
+ * The map itself is not stored. A snapshot is restored into a newly built Scenario of the same map file,
+ * see {@link SimulationEngine#SimulationEngine(Scenario, Snapshot)}, so many independent runs can branch off
+ * the same mid-game state. The random streams cannot be copied either: a restored run draws from the streams of
+ * the scenario it is restored into, so branches only play out the same way if their scenarios share the seed.
+ */
+public final class Snapshot {
+    private static final int MAGIC = 0x534E4150; //"SNAP"
+    private static final int VERSION = 5;
+
+    private final String mapName;
+    private final int width, height, numGuards, numIntruders;
+    private final int step;
+    private final byte[] state; //deflated
+
+    Snapshot(Scenario scenario, int step, byte[] state) {
+        this(scenario.NAME, scenario.WIDTH, scenario.HEIGHT, scenario.NUM_GUARDS, scenario.NUM_INTRUDERS, step, state);
+    }
+
+    private Snapshot(String mapName, int width, int height, int numGuards, int numIntruders, int step, byte[] state) {
+        this.mapName = mapName;
+        this.width = width;
+        this.height = height;
+        this.numGuards = numGuards;
+        this.numIntruders = numIntruders;
+        this.step = step;
+        this.state = state;
+    }
+
+    /**
+     * @return time step at which the snapshot was taken
+     */
+    public int getStep() {
+        return step;
+    }
+
+    public String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * @return size of the compressed state in bytes
+     */
+    public int size() {
+        return state.length;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the scenario was not built from the map the snapshot was taken on
+     */
+    void checkCompatible(Scenario scenario) {
+        if (!mapName.equals(scenario.NAME) || width != scenario.WIDTH || height != scenario.HEIGHT
+                || numGuards != scenario.NUM_GUARDS || numIntruders != scenario.NUM_INTRUDERS)
+            throw new IllegalArgumentException("snapshot of " + mapName + " (" + width + "x" + height + ", "
+                    + numGuards + " guards, " + numIntruders + " intruders) cannot be restored into " + scenario.NAME);
+    }
+
+    DataInputStream open() {
+        return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(state)));
+    }
+
+    /**
+     * @return the snapshot in a form that can be stored, see {@link #fromByteArray(byte[])}
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(state.length + 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(mapName);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(numGuards);
+            out.writeInt(numIntruders);
+            out.writeInt(step);
+            out.writeInt(state.length);
+            out.write(state);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param bytes a snapshot stored with {@link #toByteArray()}
+     * @return the snapshot
+     * @throws IllegalArgumentException if the bytes are not a snapshot of this version
+     */
+    public static Snapshot fromByteArray(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC)
+                throw new IllegalArgumentException("not a snapshot");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IllegalArgumentException("unsupported snapshot version " + version);
+            String mapName = in.readUTF();
+            int width = in.readInt(), height = in.readInt();
+            int numGuards = in.readInt(), numIntruders = in.readInt();
+            int step = in.readInt();
+            byte[] state = new byte[in.readInt()];
+            in.readFully(state);
+            return new Snapshot(mapName, width, height, numGuards, numIntruders, step, state);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("truncated snapshot", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Snapshot{" + mapName + ", step=" + step + ", " + state.length + " bytes}";
+    }
+}
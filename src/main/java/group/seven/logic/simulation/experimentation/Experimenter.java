@@ -52,9 +52,8 @@ public class Experimenter extends Simulator {
     private void runExperiment() {
         //Simulator sim = new Simulator();
         boolean running = true;
-        while (running && count < 100000) {
+        while (running && engine.getCount() < 100000) {
             long now = System.nanoTime();
-            count++;
             update();           //update model
             //elapsedTimeSteps += timeStep; //update elapsed time steps
             // System.out.print("\rElapsed Time Steps: " + elapsedTimeSteps + "\t framerate: " + ((double) now - prev) / 1e9);
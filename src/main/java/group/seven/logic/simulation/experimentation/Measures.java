@@ -1,15 +1,11 @@
 package group.seven.logic.simulation.experimentation;
 
 import group.seven.enums.AlgorithmType;
-import group.seven.logic.simulation.Simulator;
+import group.seven.enums.Status;
 import group.seven.logic.vision.Vision;
-import group.seven.model.agents.Agent;
-import group.seven.model.agents.Guard;
-import group.seven.model.agents.Intruder;
 import group.seven.model.environment.Scenario;
-import group.seven.model.environment.ScenarioBuilder;
 import group.seven.utils.Config;
-import group.seven.utils.Tuple;
+import group.seven.utils.RandomSource;
 
 import java.io.File;
 import java.net.URISyntaxException;
@@ -17,6 +13,7 @@ import java.util.ArrayList;
 import java.util.DoubleSummaryStatistics;
 import java.util.IntSummaryStatistics;
 import java.util.List;
+import java.util.SplittableRandom;
 
 //TODO: third draft
 public class Measures {
@@ -62,6 +59,8 @@ public class Measures {
     AlgorithmType guardAlgorithm = Config.ALGORITHM_GUARD;
     AlgorithmType intruderAlgorithm = Config.ALGORITHM_INTRUDER;
     Vision.Type visionType = Vision.Type.CONE;
+    int threads = Runtime.getRuntime().availableProcessors();
+    long seed = new RandomSource().seed;
 
     public Measures(String experimentName) throws URISyntaxException {
         name = experimentName;
@@ -101,55 +100,55 @@ public class Measures {
         return this;
     }
 
+    public Measures setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public Measures setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
     public void start() {
         if (built) {
-            //start simulating
-            for (int i = 0; i < n; i++) {
-                Scenario s = new ScenarioBuilder(scenarioFile).build();
-                Runner runner = new Runner(s);
-                runner.begin();
+            //every run gets its own seed, derived from the experiment's one so the whole experiment can be replayed
+            SplittableRandom seeds = new SplittableRandom(seed);
+            List<RunConfig> runs = new ArrayList<>(n);
+            for (int i = 0; i < n; i++)
+                runs.add(new RunConfig(scenarioFile, seeds.nextLong(), guardAlgorithm, intruderAlgorithm, 100000, null));
+
+            try (RunExecutor executor = new RunExecutor(threads)) {
+                executor.run(runs, this::collect);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         } else {
             System.out.println("Please build() the experiment before starting it!");
         }
     }
 
-    class Runner extends Simulator {
-
-        public Runner(Scenario scenario) {
-            super(scenario, true);
+    //called on the thread that started the experiment, one run at a time
+    void collect(RunResult result, Scenario scenario) {
+        if (result.isFailed()) {
+            System.out.println("run " + result.index() + " (seed " + result.config().seed() + ") failed: " + result.error());
+            return;
         }
 
-        public void begin() {
-            boolean running = true;
-            while (running) {
-                count++;
-                update();           //update model
-
-                elapsedTimeSteps += timeStep; //update elapsed time steps
-                for (Agent a : scenario.agents)
-                    a.setTime(elapsedTimeSteps);
-
-                //TODO: implement GameOver condition checking
-                if (count > 100000) running = false;
-            }
-            double timeOver = elapsedTimeSteps;
-        }
-
-        public void collect() {
-            Tuple<Double, Double> coverage = calculateCoverage();
-            gCoverage.add(coverage.a());
-            iCoverage.add(coverage.b());
-
-            for (Agent a : scenario.agents) {
-                if (a instanceof Guard g) {
-                    gSpeeds.add((double) g.getSpeed());
-                    gFOVs.add((double) g.getSeenTiles().size());
-                } else if (a instanceof Intruder i) {
-                    iSpeeds.add((double) i.getSpeed());
-                    iFOVs.add((double) i.getSeenTiles().size());
-                }
-            }
-        }
+        gCoverage.add(result.guardCoverage());
+        iCoverage.add(result.intruderCoverage());
+        endTimes.add((double) result.timeSteps());
+        captures.add((double) result.intrudersCaught());
+        gWins.add(result.status() == Status.GUARD_WIN ? 1 : 0);
+        iWins.add(result.intruderWin() ? 1 : 0);
+
+        scenario.agents.forEachGuard(g -> {
+            gSpeeds.add((double) g.getSpeed());
+            gFOVs.add((double) g.getSeenTiles().size());
+        });
+        scenario.agents.forEachIntruder(i -> {
+            iSpeeds.add((double) i.getSpeed());
+            iFOVs.add((double) i.getSeenTiles().size());
+        });
     }
 }
@@ -0,0 +1,72 @@
+package group.seven.logic.simulation.experimentation;
+
+import group.seven.enums.AlgorithmType;
+import group.seven.model.environment.Scenario;
+import group.seven.model.environment.ScenarioBuilder;
+import group.seven.utils.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Everything needed to set up one run, so that runs can be executed on any thread without reading
+ * the mutable settings in {@link Config}. Two runs with equal configs play out the same way.
+ *
+ * @param mapFile           map file the scenario is built from
+ * @param seed              seed of the run's random streams
+ * @param guardAlgorithm    algorithm of the guards
+ * @param intruderAlgorithm algorithm of the intruders
+ * @param maxTime           maximum number of time steps
+ * @param chromosome        weights of the neural network intruders, null to keep the ones of the map
+ */
+public record RunConfig(File mapFile, long seed, AlgorithmType guardAlgorithm, AlgorithmType intruderAlgorithm,
+                        int maxTime, List<Double> chromosome) {
+
+    public RunConfig {
+        Objects.requireNonNull(mapFile, "mapFile");
+        Objects.requireNonNull(guardAlgorithm, "guardAlgorithm");
+        Objects.requireNonNull(intruderAlgorithm, "intruderAlgorithm");
+        if (maxTime <= 0)
+            throw new IllegalArgumentException("maxTime must be positive: " + maxTime);
+        if (chromosome != null)
+            chromosome = List.copyOf(chromosome);
+    }
+
+    /**
+     * Config with the algorithms and game length currently set in {@link Config}
+     */
+    public RunConfig(File mapFile, long seed) {
+        this(mapFile, seed, Config.ALGORITHM_GUARD, Config.ALGORITHM_INTRUDER, Config.MAX_GAME_LENGTH, null);
+    }
+
+    public RunConfig withSeed(long seed) {
+        return new RunConfig(mapFile, seed, guardAlgorithm, intruderAlgorithm, maxTime, chromosome);
+    }
+
+    public RunConfig withAlgorithms(AlgorithmType guardAlgorithm, AlgorithmType intruderAlgorithm) {
+        return new RunConfig(mapFile, seed, guardAlgorithm, intruderAlgorithm, maxTime, chromosome);
+    }
+
+    public RunConfig withMaxTime(int maxTime) {
+        return new RunConfig(mapFile, seed, guardAlgorithm, intruderAlgorithm, maxTime, chromosome);
+    }
+
+    public RunConfig withChromosome(List<Double> chromosome) {
+        return new RunConfig(mapFile, seed, guardAlgorithm, intruderAlgorithm, maxTime, chromosome);
+    }
+
+    /**
+     * @return a newly built Scenario for this run, sharing no state with other runs
+     */
+    public Scenario buildScenario() {
+        Scenario scenario = new ScenarioBuilder(mapFile)
+                .setSeed(seed)
+                .setAlgorithms(guardAlgorithm, intruderAlgorithm)
+                .build();
+        if (chromosome != null)
+            scenario.setChromosome(new ArrayList<>(chromosome));
+        return scenario;
+    }
+}
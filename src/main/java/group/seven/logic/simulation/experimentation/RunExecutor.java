@@ -0,0 +1,124 @@
+package group.seven.logic.simulation.experimentation;
+
+import group.seven.logic.simulation.SimulationEngine;
+import group.seven.model.environment.Scenario;
+
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs independent simulations on a fixed number of threads. Each run builds its own Scenario from its
+ * {@link RunConfig}, and the simulation keeps no static state, so the runs do not interfere with each other.
+ * <p>
+ * Results are handed back on the calling thread as soon as each run finishes (so in completion order, not
+ * submission order), which means the consumer does not need to be thread safe. A run that throws does not
+ * stop the others, it is reported as a failed {@link RunResult}. Only errors of the virtual machine itself, like
+ * running out of memory, end the whole execution.
+ */
+public class RunExecutor implements AutoCloseable {
+    private final ExecutorService pool;
+    private final int threads;
+
+    /**
+     * @param threads number of runs to execute at the same time
+     */
+    public RunExecutor(int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        this.threads = threads;
+        AtomicInteger count = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "simulation-run-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Uses one thread per available processor
+     */
+    public RunExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Executes all runs and blocks until the last one finished.
+     *
+     * @param configs  one config per run
+     * @param onResult called with the result of every run as soon as it is available
+     * @throws InterruptedException if the calling thread is interrupted while waiting, the remaining runs are cancelled
+     */
+    public void run(List<RunConfig> configs, Consumer<RunResult> onResult) throws InterruptedException {
+        run(configs, (result, scenario) -> onResult.accept(result));
+    }
+
+    /**
+     * Executes all runs and blocks until the last one finished, also handing over the final state of every run for
+     * measures not summarized in its result. The scenario is not kept after the call, so it can be collected as soon
+     * as the consumer is done with it.
+     *
+     * @param configs  one config per run
+     * @param onResult called with the result and the scenario of every run as soon as it is available, the scenario
+     *                 is null if the run failed
+     * @throws InterruptedException if the calling thread is interrupted while waiting, the remaining runs are cancelled
+     */
+    public void run(List<RunConfig> configs, BiConsumer<RunResult, Scenario> onResult) throws InterruptedException {
+        CompletionService<Finished> completion = new ExecutorCompletionService<>(pool);
+        for (int i = 0; i < configs.size(); i++) {
+            int index = i;
+            RunConfig config = configs.get(i);
+            completion.submit(() -> execute(index, config));
+        }
+
+        for (int i = 0; i < configs.size(); i++) {
+            try {
+                Finished finished = completion.take().get();
+                onResult.accept(finished.result(), finished.scenario());
+            } catch (ExecutionException e) {
+                //execute() catches everything the run throws but errors of the virtual machine,
+                //anything else is a bug of the executor itself
+                if (e.getCause() instanceof VirtualMachineError error)
+                    throw error;
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                throw e;
+            }
+        }
+    }
+
+    //a finished run, the scenario is null if it failed
+    private record Finished(RunResult result, Scenario scenario) {
+    }
+
+    private static Finished execute(int index, RunConfig config) {
+        long start = System.nanoTime();
+        try {
+            SimulationEngine engine = new SimulationEngine(config.buildScenario()).setMaxTime(config.maxTime());
+            engine.runToCompletion();
+            return new Finished(RunResult.completed(index, config, engine, System.nanoTime() - start), engine.getScenario());
+        } catch (VirtualMachineError e) {
+            //out of memory or stack, the other runs cannot be trusted to get any further
+            throw e;
+        } catch (Throwable e) {
+            //including errors like an AssertionError or a missing class of one algorithm, the other runs go on
+            return new Finished(RunResult.failed(index, config, e, System.nanoTime() - start), null);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
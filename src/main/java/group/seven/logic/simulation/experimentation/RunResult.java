@@ -0,0 +1,40 @@
+package group.seven.logic.simulation.experimentation;
+
+import group.seven.enums.Status;
+import group.seven.logic.simulation.SimulationEngine;
+import group.seven.model.environment.Scenario;
+
+/**
+ * Outcome of one run of a {@link RunExecutor}. It only keeps the summary of the run, not its Scenario, so keeping the
+ * results of a sweep does not keep every run's map alive.
+ *
+ * @param index            position of the run's config in the submitted list
+ * @param config           config the run was set up with
+ * @param status           final status, null if the run failed
+ * @param timeSteps        number of time steps played
+ * @param intruderWin      whether the intruders won
+ * @param intrudersCaught  number of intruders caught
+ * @param guardCoverage    percentage of the map seen by the guards
+ * @param intruderCoverage percentage of the map seen by the intruders
+ * @param nanos            wall-clock time the run took, including building the scenario
+ * @param error            what the run threw, null if it completed
+ */
+public record RunResult(int index, RunConfig config, Status status, int timeSteps,
+                        boolean intruderWin, int intrudersCaught, double guardCoverage, double intruderCoverage,
+                        long nanos, Throwable error) {
+
+    static RunResult completed(int index, RunConfig config, SimulationEngine engine, long nanos) {
+        Scenario scenario = engine.getScenario();
+        return new RunResult(index, config, engine.getStatus(), engine.getCount(), engine.isIntruderWin(),
+                scenario.INTRUDERS_CAUGHT, scenario.TILE_MAP.getGuardCoverage(), scenario.TILE_MAP.getIntruderCoverage(),
+                nanos, null);
+    }
+
+    static RunResult failed(int index, RunConfig config, Throwable error, long nanos) {
+        return new RunResult(index, config, null, 0, false, 0, 0, 0, nanos, error);
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
@@ -1,11 +1,9 @@
 package group.seven.logic.vision;
 
 import group.seven.enums.Cardinal;
-import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
 import group.seven.model.environment.Tile;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import static group.seven.enums.TileType.WALL;
@@ -13,7 +11,6 @@ import static group.seven.logic.vision.Vision.Type.CONE;
 
 public class ConeVision implements Vision {
 
-    public static int counterBIG = 0;
     public Type type = CONE;
     private Agent agent;
 
@@ -27,24 +24,23 @@ public class ConeVision implements Vision {
 
     @Override
     public void observe(int x, int y, List<Tile> observedTile, Agent agent) {
-        agent.scenario.TILE_MAP.getTile(x, y).setExplored(agent);
-        observedTile.add(agent.scenario.TILE_MAP.getTile(x, y));
+        Tile tile = agent.scenario.TILE_MAP.getTile(x, y);
+        tile.setExplored(agent);
+        reportSightings(x, y, observedTile, agent);
+        observedTile.add(tile);
     }
 
 
     @Override
-    public List<Tile> updateAndGetVisionAgent(Agent agent) {
-        List<Tile> observedTiles = new LinkedList<>();
-        XY globalCoordinates = agent.getXY();
-        int xCoordinate = globalCoordinates.x();
-        int yCoordinate = globalCoordinates.y();
+    public void updateVision(Agent agent, List<Tile> observedTiles) {
+        int xCoordinate = agent.getX();
+        int yCoordinate = agent.getY();
         int distance = agent.scenario.VIEW_DISTANCE;   // shortens the view distance if wall is encountered
         Cardinal directionAgent = agent.getDirection();
 
         switch (directionAgent) {
             // north is 90 degrees, so u need a ray at 45 degrees and 135 degrees
             case NORTH -> {
-                List<Integer> blockedTiles = new LinkedList<>();
                 int counter = 1;
                 int x_counter = 1;
                 int see_wall = 0;
@@ -53,10 +49,7 @@ public class ConeVision implements Vision {
                 for (int y = yCoordinate - counter; y >= yCoordinate - distance; y--) {
                     for (int x = xCoordinate - x_counter; x <= xCoordinate + x_counter; x++) {
                         if (y < agent.scenario.HEIGHT && x < agent.scenario.WIDTH && x > 0 && y > 0) {
-                            if (blockedTiles.contains(x)) {
-                                break outerloop;
-                            } else if (agent.scenario.TILE_MAP.getTile(x, y).getType() == WALL) {
-                                blockedTiles.add(x);
+                            if (agent.scenario.TILE_MAP.getType(x, y) == WALL) {
                                 break outerloop;
                             } else {
                                 observe(x, y, observedTiles, agent);
@@ -71,10 +64,8 @@ public class ConeVision implements Vision {
                     }
                     x_counter++;
                 }
-                blockedTiles.clear();
             }
             case SOUTH -> {
-                List<Integer> blockedTiles = new LinkedList<>();
                 int counter = 1;
                 int x_counter = 1;
                 int see_wall = 0;
@@ -82,10 +73,7 @@ public class ConeVision implements Vision {
                 for (int y = yCoordinate + counter; y <= yCoordinate + distance; y++) {
                     for (int x = xCoordinate - x_counter; x <= xCoordinate + x_counter; x++) {
                         if (y < agent.scenario.HEIGHT && x < agent.scenario.WIDTH && x > 0 && y > 0) {
-                            if (blockedTiles.contains(x)) {
-                                break outerloop;
-                            } else if (agent.scenario.TILE_MAP.getTile(x, y).getType() == WALL) {
-                                blockedTiles.add(x);
+                            if (agent.scenario.TILE_MAP.getType(x, y) == WALL) {
                                 break outerloop;
                             } else {
                                 observe(x, y, observedTiles, agent);
@@ -100,10 +88,8 @@ public class ConeVision implements Vision {
                     }
                     x_counter++;
                 }
-                blockedTiles.clear();
             }
             case EAST -> {
-                List<Integer> blockedTiles = new LinkedList<>();
                 int counter = 1;
                 int y_counter = 1;
                 int see_wall = 0;
@@ -111,10 +97,7 @@ public class ConeVision implements Vision {
                 for (int x = xCoordinate + counter; x <= xCoordinate + distance; x++) {
                     for (int y = yCoordinate - y_counter; y <= yCoordinate + y_counter; y++) {
                         if (y < agent.scenario.HEIGHT && x < agent.scenario.WIDTH && x > 0 && y > 0) {
-                            if (blockedTiles.contains(x)) {
-                                break outerloop;
-                            } else if (agent.scenario.TILE_MAP.getTile(x, y).getType() == WALL) {
-                                blockedTiles.add(x);
+                            if (agent.scenario.TILE_MAP.getType(x, y) == WALL) {
                                 break outerloop;
                             } else {
                                 observe(x, y, observedTiles, agent);
@@ -129,11 +112,9 @@ public class ConeVision implements Vision {
                     }
                     y_counter++;
                 }
-                blockedTiles.clear();
             }
             //create rays
             case WEST -> {
-                List<Integer> blockedTiles = new LinkedList<>();
                 int counter = 1;
                 int y_counter = 1;
                 int see_wall = 0;
@@ -141,10 +122,7 @@ public class ConeVision implements Vision {
                 for (int x = xCoordinate - counter; x >= xCoordinate - distance; x--) {
                     for (int y = yCoordinate - y_counter; y <= yCoordinate + y_counter; y++) {
                         if (y < agent.scenario.HEIGHT && x < agent.scenario.WIDTH && x > 0 && y > 0) {
-                            if (blockedTiles.contains(x)) {
-                                break outerloop;
-                            } else if (agent.scenario.TILE_MAP.getTile(x, y).getType() == WALL) {
-                                blockedTiles.add(x);
+                            if (agent.scenario.TILE_MAP.getType(x, y) == WALL) {
                                 break outerloop;
                             } else {
                                 observe(x, y, observedTiles, agent);
@@ -159,12 +137,8 @@ public class ConeVision implements Vision {
                     }
                     y_counter++;
                 }
-                blockedTiles.clear();
             }
         }
-
-        counterBIG++;
-        return observedTiles;
     }
 
     @Override
@@ -1,11 +1,9 @@
 package group.seven.logic.vision;
 
 import group.seven.enums.Cardinal;
-import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
 import group.seven.model.environment.Tile;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import static group.seven.enums.TileType.WALL;
@@ -29,17 +27,17 @@ public class RectangleVision implements Vision {
 
     @Override
     public void observe(int x, int y, List<Tile> observedTile, Agent agent) {
-        agent.scenario.TILE_MAP.getTile(x, y).setExplored(agent);
-        observedTile.add(agent.scenario.TILE_MAP.getTile(x, y));
+        Tile tile = agent.scenario.TILE_MAP.getTile(x, y);
+        tile.setExplored(agent);
+        reportSightings(x, y, observedTile, agent);
+        observedTile.add(tile);
     }
 
     @Override
-    public List<Tile> updateAndGetVisionAgent(Agent agent) {
-        List<Tile> observedTiles = new LinkedList<>(); // list contains all the tiles seen by agent
+    public void updateVision(Agent agent, List<Tile> observedTiles) {
         //get position of agent
-        XY agentGlobal = agent.getXY(); //only have to transform once
-        int xCoordinate = agentGlobal.x();
-        int yCoordinate = agentGlobal.y();
+        int xCoordinate = agent.getX();
+        int yCoordinate = agent.getY();
         Cardinal directionAgent = agent.getDirection(); //get direction of agent
 
         switch (directionAgent) {
@@ -49,7 +47,7 @@ public class RectangleVision implements Vision {
                         // set that the player saw the tile
                         observe(xCoordinate, y, observedTiles, agent);
                         //CHECK COLLISIONS with walls
-                        if (agent.scenario.TILE_MAP.getTile(xCoordinate, y).getType() == WALL) {
+                        if (agent.scenario.TILE_MAP.getType(xCoordinate, y) == WALL) {
                             //if the agent sees a wall, we break as it cant see any further
                             break;
                         }
@@ -64,7 +62,7 @@ public class RectangleVision implements Vision {
                             observe(xCoordinate - 1, y, observedTiles, agent);
 
                             //CHECK COLLISIONS with walls
-                            if (agent.scenario.TILE_MAP.getTile(xCoordinate - 1, y).getType() == WALL) { // TODO: check this
+                            if (agent.scenario.TILE_MAP.getType(xCoordinate - 1, y) == WALL) { // TODO: check this
                                 //if the agent sees a wall, we break as it cant see any further
                                 break;
                             }
@@ -81,7 +79,7 @@ public class RectangleVision implements Vision {
                             observe(xCoordinate + 1, y, observedTiles, agent);
 
                             //CHECK COLLISIONS with walls
-                            if (agent.scenario.TILE_MAP.getTile(xCoordinate + 1, y).getType() == WALL) {
+                            if (agent.scenario.TILE_MAP.getType(xCoordinate + 1, y) == WALL) {
                                 break;
                             }
                         } else { //out of bound for edges of map
@@ -98,7 +96,7 @@ public class RectangleVision implements Vision {
                         observe(xCoordinate, y, observedTiles, agent);
 
                         //CHECK COLLISIONS with walls
-                        if (agent.scenario.TILE_MAP.getTile(xCoordinate, y).getType() == WALL) {
+                        if (agent.scenario.TILE_MAP.getType(xCoordinate, y) == WALL) {
                             break;
                         }
                     } else { //out of bound for edges of map
@@ -113,7 +111,7 @@ public class RectangleVision implements Vision {
                             observe(xCoordinate - 1, y, observedTiles, agent);
 
                             //CHECK COLLISIONS with walls
-                            if (agent.scenario.TILE_MAP.getTile(xCoordinate - 1, y).getType() == WALL) {
+                            if (agent.scenario.TILE_MAP.getType(xCoordinate - 1, y) == WALL) {
                                 break;
                             }
                         } else { //out of bound for edges of map
@@ -127,7 +125,7 @@ public class RectangleVision implements Vision {
                         if (y < agent.scenario.HEIGHT) { //cant go lower than y=map.height, so if the number is larger is out of bound
                             observe(xCoordinate + 1, y, observedTiles, agent);
                             //CHECK COLLISIONS with walls
-                            if (agent.scenario.TILE_MAP.getTile(xCoordinate + 1, y).getType() == WALL) {
+                            if (agent.scenario.TILE_MAP.getType(xCoordinate + 1, y) == WALL) {
                                 break;
                             }
                         } else {
@@ -143,7 +141,7 @@ public class RectangleVision implements Vision {
                         observe(x, yCoordinate, observedTiles, agent);
 
                         //CHECK COLLISIONS with walls
-                        if (agent.scenario.TILE_MAP.getTile(x, yCoordinate).getType() == WALL) {
+                        if (agent.scenario.TILE_MAP.getType(x, yCoordinate) == WALL) {
                             break;
                         }
                     } else { //out of bound for edges of map
@@ -156,7 +154,7 @@ public class RectangleVision implements Vision {
                         if (x < agent.scenario.WIDTH) { //cant go higher than y=0, so if the number is positive is out of bound
                             observe(x, yCoordinate - 1, observedTiles, agent);
                             //CHECK COLLISIONS with walls
-                            if (agent.scenario.TILE_MAP.getTile(x, yCoordinate - 1).getType() == WALL) {
+                            if (agent.scenario.TILE_MAP.getType(x, yCoordinate - 1) == WALL) {
                                 break;
                             }
                         } else {
@@ -170,7 +168,7 @@ public class RectangleVision implements Vision {
                         if (x < agent.scenario.WIDTH) {
                             observe(x, yCoordinate + 1, observedTiles, agent);
                             //CHECK COLLISIONS with walls
-                            if (agent.scenario.TILE_MAP.getTile(x, yCoordinate + 1).getType() == WALL) {
+                            if (agent.scenario.TILE_MAP.getType(x, yCoordinate + 1) == WALL) {
                                 break;
                             }
                         } else {
@@ -186,7 +184,7 @@ public class RectangleVision implements Vision {
                         observe(x, yCoordinate, observedTiles, agent);
 
                         //CHECK COLLISIONS with walls
-                        if (agent.scenario.TILE_MAP.getTile(x, yCoordinate).getType() == WALL) {
+                        if (agent.scenario.TILE_MAP.getType(x, yCoordinate) == WALL) {
                             break;
                         }
                     } else { //out of bound for edges of map
@@ -199,7 +197,7 @@ public class RectangleVision implements Vision {
                         if (x >= 0) { //cant go higher than y=0, so if the number is positive is out of bound
                             observe(x, yCoordinate - 1, observedTiles, agent);
                             //CHECK COLLISIONS with walls
-                            if (agent.scenario.TILE_MAP.getTile(x, yCoordinate - 1).getType() == WALL) {
+                            if (agent.scenario.TILE_MAP.getType(x, yCoordinate - 1) == WALL) {
                                 break;
                             }
                         } else {
@@ -214,7 +212,7 @@ public class RectangleVision implements Vision {
                             observe(x, yCoordinate + 1, observedTiles, agent);
 
                             //CHECK COLLISIONS with walls
-                            if (agent.scenario.TILE_MAP.getTile(x, yCoordinate + 1).getType() == WALL) {
+                            if (agent.scenario.TILE_MAP.getType(x, yCoordinate + 1) == WALL) {
                                 break;
                             }
                         } else {
@@ -225,7 +223,6 @@ public class RectangleVision implements Vision {
                 }
             }
         }
-        return observedTiles;
     }
 
     @Override
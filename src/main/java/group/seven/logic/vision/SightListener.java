@@ -0,0 +1,18 @@
+package group.seven.logic.vision;
+
+import group.seven.model.agents.Agent;
+
+/**
+ * Gets told by the vision whenever a guard observes a tile an intruder is standing on,
+ * so captures can be detected while the vision is computed instead of by scanning the seen tiles afterwards.
+ */
+@FunctionalInterface
+public interface SightListener {
+
+    /**
+     * @param guard    the guard that observed the intruder
+     * @param intruder the intruder standing on the observed tile
+     * @param index    position of the tile in the guard's list of observed tiles, i.e. how many tiles were observed before it
+     */
+    void intruderSighted(Agent guard, Agent intruder, int index);
+}
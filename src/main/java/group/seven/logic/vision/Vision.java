@@ -1,10 +1,17 @@
 package group.seven.logic.vision;
 
+import group.seven.logic.geometric.Cells;
 import group.seven.model.agents.Agent;
 import group.seven.model.environment.Tile;
+import group.seven.model.environment.TileMap;
+import group.seven.model.environment.VisibleCells;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static group.seven.enums.TileType.GUARD;
+import static group.seven.enums.TileType.INTRUDER;
+
 public interface Vision {
 
     enum Type {RECTANGULAR, CONE} //maybe should be moved to the enum package, but not sure if matters
@@ -19,13 +26,86 @@ public interface Vision {
      */
     void observe(int x, int y, List<Tile> observedTile, Agent agent);
 
+    /**
+     * Same as {@link #observe(int, int, List, Agent)}, for the tile with the given cell id
+     * @param cell cell id of the tile on the agent's TileMap, see {@link Cells}
+     * @param observedTile
+     * @param agent
+     */
+    default void observe(int cell, List<Tile> observedTile, Agent agent) {
+        TileMap map = agent.scenario.TILE_MAP;
+        observe(map.cellX(cell), map.cellY(cell), observedTile, agent);
+    }
+
+    /**
+     * Tells the scenario's {@link SightListener} about every intruder on the tile, if the observing agent is a guard.
+     * Has to be called by observe before the tile is added, so that the index matches the tile's position in the list
+     * @param x
+     * @param y
+     * @param observedTile
+     * @param agent
+     */
+    default void reportSightings(int x, int y, List<Tile> observedTile, Agent agent) {
+        SightListener listener = agent.scenario.sightListener;
+        if (listener != null && agent.getType() == GUARD)
+            reportSightings(listener, x, y, observedTile.size(), agent);
+    }
+
+    /**
+     * Reports the intruders on the tiles of a vision computed earlier, for an agent whose vision did not change
+     * @param observedTiles tiles observed by the agent, in the order they were observed
+     * @param agent
+     */
+    static void reportSightings(List<Tile> observedTiles, Agent agent) {
+        SightListener listener = agent.scenario.sightListener;
+        if (listener == null || agent.getType() != GUARD)
+            return;
+
+        int index = 0;
+        for (Tile tile : observedTiles)
+            reportSightings(listener, tile.getX(), tile.getY(), index++, agent);
+    }
+
+    private static void reportSightings(SightListener listener, int x, int y, int index, Agent agent) {
+        for (Agent other : agent.scenario.TILE_MAP.getAgentsAt(x, y))
+            if (other.getType() == INTRUDER)
+                listener.intruderSighted(agent, other, index);
+    }
+
+    /**
+     * The vision of the agent is calculated and the method observe is called to generate all updates needed
+     * @param agent
+     * @param observedTiles list the tiles seen by agent are added to, in the order they are observed. Agents pass the
+     *                      same list every time, so computing the vision does not allocate
+     */
+    void updateVision(Agent agent, List<Tile> observedTiles);
+
     /**
      * Given an agent, an observeList of Tiles is created
      * The vision of the agent is calculated and the method observe is called to generate all updates needed
      * @param agent
      * @return list of tiles seen by agent
      */
-    List<Tile> updateAndGetVisionAgent (Agent agent);
+    default List<Tile> updateAndGetVisionAgent(Agent agent) {
+        List<Tile> observedTiles = new ArrayList<>();
+        updateVision(agent, observedTiles);
+        return observedTiles;
+    }
+
+    /**
+     * Gives the cell ids of the tiles the agent sees, without computing its vision again: they are read from
+     * {@link Agent#getVisibleCells()}, as filled by the agent's last vision update
+     * @param agent
+     * @return cell ids of the tiles seen by agent, in the order they were observed
+     */
+    default int[] updateAndGetVisionCells(Agent agent) {
+        VisibleCells visible = agent.getVisibleCells();
+        int[] cells = new int[visible.size()];
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = visible.getCell(i);
+        return cells;
+    }
+
     List<Tile> updateAndGetVisionAgent();
     Type getType();
 
@@ -1,52 +1,71 @@
 package group.seven.model.agents;
 
 import group.seven.enums.*;
+import group.seven.logic.algorithms.SearchCells;
 import group.seven.logic.geometric.XY;
+import group.seven.logic.vision.Vision;
 import group.seven.model.environment.*;
-import javafx.scene.transform.Translate;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static group.seven.enums.Cardinal.*;
-import static group.seven.utils.Methods.print;
 
 //TODO the agent structure very much work in progress
 public abstract class Agent {
-    public static int IDs = 0;
-
     private double numExplored;
     //Coordinates and Frames:
     public final XY globalSpawn; //global spawn position
     protected int x, y;
-    public final Frame frame; //handles coordinate transforms
+    public final TranslationFrame frame; //handles coordinate transforms, local (0,0) is the spawn
+    private Frame transformFrame; //general JavaFX frame, created on first use
     protected Cardinal direction;
     //Type
     public TileType agentType;
-    //Frontier
-    protected List<Tile> seenTiles = new ArrayList<>(30);
+    //Frontier: the tiles seen since the vision was last cleared, each once
+    protected final VisibleCells seenTiles;
+    //scratch space of the agent's path searches, created by the first one
+    private SearchCells searchCells;
     protected List<Tile> seenFurthestTiles = new ArrayList<>(30); // TODO: connect it with vision - waiting for xander
     //Marker and Pheromone
     public int PHEROMONELIFETIME = 20;
     private final ArrayList<Marker> markers = new ArrayList<>();
     private final ArrayList<Pheromone> pheromones = new ArrayList<>();
-    //Internal map
-    private TileNode[][] map;
+    //Internal map, the agent's own or the one of its team, created on first use
+    private KnowledgeMap knowledge;
+    //the tiles the agent saw itself, and when
+    private final SeenOverlay seen;
     //Type
     boolean ignorePortal = false;
     boolean isTeleported = false;
     public Scenario scenario;
+    //own random stream, split from the scenario's so that runs can be replayed from their seed
+    protected final SplittableRandom random;
     private double currentTime = 0;
+    //Changes to the shared environment that are held back while moves are decided in parallel
+    private final List<Runnable> pendingEffects = new ArrayList<>(2);
+    private boolean deferEffects = false;
+    //pose (local position and direction) the last vision was computed for, see updateVision()
+    private final List<Tile> observedTiles = new ArrayList<>(30);
+    private int visionX, visionY;
+    private Cardinal visionDirection;
+    private boolean visionValid = false;
 
     //Current Speed
     //Strategy
 
     public Agent(int x, int y, Scenario s) {
         scenario = s;
-        frame = new Frame(new Translate(-x, -y));
+        random = s.RANDOM.split();
+        frame = new TranslationFrame(x, y);
         globalSpawn = new XY(x, y);
 
-        map = new TileNode[s.WIDTH + 1][s.HEIGHT + 1];
+        seen = new SeenOverlay(s.WIDTH + 1, s.HEIGHT + 1);
+        seenTiles = new VisibleCells(this);
         setXY(x, y);
         //initializeMap();
     }
@@ -65,13 +84,21 @@ public abstract class Agent {
     public void executeMove(int distance) {
         x += direction.unitVector().x() * distance;
         y += direction.unitVector().y() * distance;
+        relocated();
     }
 
     public void moveTo(XY pos) {
-        pos = frame.convertToLocal(pos);
+        this.x = frame.toLocalX(pos.x());
+        this.y = frame.toLocalY(pos.y());
+        relocated();
+    }
 
-        this.x = pos.x();
-        this.y = pos.y();
+    /**
+     * Keeps the occupancy grid of the TileMap in sync. Has to be called after every change of x or y
+     */
+    protected void relocated() {
+        if (scenario.TILE_MAP != null)
+            scenario.TILE_MAP.moveAgent(this, getX(), getY());
     }
 
     public void setIgnorePortal(boolean ignorePortal) {  // TODO: handle by simulator
@@ -101,7 +128,40 @@ public abstract class Agent {
         }
     }
 
-    public abstract void updateVision();
+    /**
+     * Recomputes what the agent sees, but only if it moved or turned since the last time. The vision only depends
+     * on the pose of the agent and on the walls, so computing it again for the same pose gives the same tiles.
+     * Guards still report the intruders in their field of view, as those may have moved in the meantime
+     */
+    public void updateVision() {
+        if (visionValid && x == visionX && y == visionY && direction == visionDirection) {
+            if (seenTiles.isEmpty()) //cleared since, rebuild from the tiles observed last time
+                seenTiles.addAll(observedTiles);
+            Vision.reportSightings(observedTiles, this);
+            return;
+        }
+
+        observedTiles.clear();
+        computeVision(observedTiles);
+        visionX = x;
+        visionY = y;
+        visionDirection = direction;
+        visionValid = true;
+    }
+
+    /**
+     * Computes the vision of the agent from scratch and adds the observed tiles to its seen tiles
+     *
+     * @param observedTiles empty list to add the observed tiles to, in the order the vision observes them
+     */
+    protected abstract void computeVision(List<Tile> observedTiles);
+
+    /**
+     * Forces the next call of updateVision to compute the vision from scratch, e.g. when a different vision is attached
+     */
+    protected void invalidateVision() {
+        visionValid = false;
+    }
 
     public void clearVision() {
         seenTiles.clear();
@@ -112,49 +172,99 @@ public abstract class Agent {
         return seenTiles;
     }
 
+    /**
+     * @return the seen tiles as cell ids, see {@link #getSeenTiles()}
+     */
+    public VisibleCells getVisibleCells() {
+        return seenTiles;
+    }
+
+    /**
+     * @return the per-cell scratch space the agent's path searches reuse, see {@link SearchCells}
+     */
+    public SearchCells getSearchCells() {
+        if (searchCells == null)
+            searchCells = new SearchCells();
+        return searchCells;
+    }
+
     public void setSeenTiles(List<Tile> seenTiles) {
-        this.seenTiles = seenTiles;
+        if (seenTiles == this.seenTiles)
+            return;
+        this.seenTiles.clear();
+        this.seenTiles.addAll(seenTiles);
     }
 
     public List<Tile> getSeenFurthestTiles() {
         return seenFurthestTiles;
     }
 
-    protected int newID() {
-        return IDs++;
-    }
-
+    /**
+     * @return global x-coordinate of the agent, without allocating
+     */
     public int getX() {
-        /* convert with frame. This would make callers of the method receive agents coords in global frame*/
-        return frame.convertToGlobal(x, y).x();
-        //return x;
+        return frame.toGlobalX(x);
     }
 
     public void setX(int x) {
-        //convert with frame, might be trickier since the affine transforms require 2D coordinate
-        this.x = frame.convertToLocal(x, 0).x();
+        this.x = frame.toLocalX(x);
+        relocated();
     }
 
+    /**
+     * @return global y-coordinate of the agent, without allocating
+     */
     public int getY() {
-        return frame.convertToGlobal(x, y).y();
+        return frame.toGlobalY(y);
     }
 
     public void setY(int y) {
-        this.y = frame.convertToLocal(0, y).y();
+        this.y = frame.toLocalY(y);
+        relocated();
+    }
+
+    /**
+     * @return x-coordinate of the agent in its own frame, relative to its spawn
+     */
+    public int getLocalX() {
+        return x;
+    }
+
+    /**
+     * @return y-coordinate of the agent in its own frame, relative to its spawn
+     */
+    public int getLocalY() {
+        return y;
     }
 
+    /**
+     * @return global position of the agent as a new XY, prefer {@link #getX()} and {@link #getY()} in loops
+     */
     public XY getXY() {
         return frame.convertToGlobal(x, y);
     }
 
+    /**
+     * @return the agent's frame as a general JavaFX transform frame
+     */
+    public Frame getFrame() {
+        if (transformFrame == null)
+            transformFrame = frame.toFrame();
+        return transformFrame;
+    }
+
     public void setXY(XY newXY) {
         setXY(newXY.x(), newXY.y());
     }
 
     public void setXY(int x, int y) {
-        XY local = frame.convertToLocal(x, y);
-        this.x = local.x();
-        this.y = local.y();
+        this.x = frame.toLocalX(x);
+        this.y = frame.toLocalY(y);
+        relocated();
+    }
+
+    public SplittableRandom getRandom() {
+        return random;
     }
 
     public Cardinal getDirection() {
@@ -194,23 +304,6 @@ public abstract class Agent {
         updateMap(); //updates the map with the content of seen list.
     }
 
-    /**
-     * Make sure that only one instance gets stored of a tile during the vision process
-     *
-     * @param observedTiles the currently observed tiles
-     * @param newTiles      the new tiles which needs to be checked
-     * @return the observedTiles with the not seen newTiles
-     */
-    public List<Tile> duplicatedTiles(List<Tile> observedTiles, List<Tile> newTiles) {
-        for (Tile tile : newTiles) {
-            if (observedTiles.contains(tile)) {
-                continue;
-            }
-            observedTiles.add(tile);
-        }
-        return observedTiles;
-    }
-
     //update just the direction of agent (and the default, which is updating vision)
     public void update(Action rotation) {
         switch (rotation) {
@@ -236,60 +329,61 @@ public abstract class Agent {
     //update the agents coordinates (and its vision)
     public void update(XY newPosition) {
 
-        newPosition = frame.convertToLocal(newPosition);
-
-        this.x = newPosition.x();
-        this.y = newPosition.y();
+        this.x = frame.toLocalX(newPosition.x());
+        this.y = frame.toLocalY(newPosition.y());
+        relocated();
 
         update();
     }
 
     //
     public void initializeMap() {
-        map = new TileNode[scenario.WIDTH + 1][scenario.HEIGHT + 1];
+        getKnowledgeMap().clear();
+        seen.clear();
     }
 
     //I think this just gets called once upon spawning
     public void initializeInitialTile() {
         try {
-            map[globalSpawn.x()][globalSpawn.y()] = new TileNode(scenario.TILE_MAP.getTile(globalSpawn), this);
+            getKnowledgeMap().discover(scenario.TILE_MAP.getTile(globalSpawn));
         } catch (Exception e) {
             System.err.println("An error occurred in the initialization of the initial tile in the agent class");
             e.printStackTrace();
         }
     }
 
+    /**
+     * Updates the internal map with the seen tiles, see {@link KnowledgeMap#update(List)}
+     */
     public void updateMap() {
-        for (Tile tile : seenTiles) {
-            int tx = tile.getX();
-            int ty = tile.getY();
-
-            //because the map is initialized as null
-            if (map[tx][ty] != null) {
-                map[tx][ty].update();
-            } else map[tx][ty] = new TileNode(tile, this);
-        }
+        getKnowledgeMap().update(seenTiles);
+        for (Tile tile : seenTiles)
+            seen.see(tile.getX(), tile.getY(), currentTime);
+    }
 
+    /**
+     * @return the internal map of the agent, shared with its team if the scenario says so
+     */
+    public KnowledgeMap getKnowledgeMap() {
+        if (knowledge == null)
+            knowledge = scenario.SHARED_TEAM_MAPS ? scenario.getTeamMap(agentType) : KnowledgeMap.of(scenario);
+        return knowledge;
+    }
 
-        for (TileNode[] tiles : map) {
-            for (TileNode tile : tiles) {
-                if (tile != null) tile.updateAdjacent();
-            }
-        }
+    /**
+     * @return the tiles this agent saw itself, and when, whether or not its internal map is shared
+     */
+    public SeenOverlay getSeenOverlay() {
+        return seen;
     }
 
     //parameters are in global
     public TileNode getMapPosition(int x, int y) {
-        try {
-            return map[x][y];
-        } catch (IndexOutOfBoundsException e) {
-            print(e.getMessage());
-            return null;
-        }
+        return getKnowledgeMap().get(x, y);
     }
 
     public TileNode[][] getMap() {
-        return map;
+        return getKnowledgeMap().getNodes();
     }
 
 //    public XY getLocalCoordinate(int x, int y) {
@@ -305,22 +399,103 @@ public abstract class Agent {
         return this.isTeleported;
     }
 
+    /**
+     * Applies a change an algorithm makes to the shared environment (pheromones, explore markers, counters).
+     * While effects are deferred the change is queued until {@link #flushEffects()}, so other agents
+     * deciding at the same time keep seeing the state of the previous time step.
+     *
+     * @param effect the change to the environment
+     */
+    public void applyEffect(Runnable effect) {
+        if (deferEffects)
+            pendingEffects.add(effect);
+        else
+            effect.run();
+    }
+
+    public void setDeferEffects(boolean deferEffects) {
+        this.deferEffects = deferEffects;
+    }
+
+    /**
+     * Applies the queued environment changes in the order they were made
+     */
+    public void flushEffects() {
+        for (Runnable effect : pendingEffects)
+            effect.run();
+        pendingEffects.clear();
+    }
+
     public double getTime() {
         return currentTime;
     }
 
+    /**
+     * Writes the state of the agent that changes during a run: its pose, what it has seen and its internal map.
+     * Subclasses add their own state, including the one of their algorithm
+     *
+     * @param out stream to write to
+     * @throws IOException if the stream does
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeByte(direction.ordinal());
+        out.writeDouble(numExplored);
+        out.writeDouble(currentTime);
+        out.writeBoolean(ignorePortal);
+        out.writeBoolean(isTeleported);
+
+        out.writeInt(seenTiles.size());
+        for (Tile tile : seenTiles) {
+            out.writeInt(tile.getX());
+            out.writeInt(tile.getY());
+        }
+
+        getKnowledgeMap().writeState(out);
+        seen.writeState(out);
+    }
+
+    /**
+     * Reads back what {@link #writeState(DataOutput)} wrote, into an agent spawned at the same place.
+     * The TileMap has to be restored before, since the internal map refers to its tiles
+     *
+     * @param in stream to read from
+     * @throws IOException if the stream does
+     */
+    public void readState(DataInput in) throws IOException {
+        x = in.readInt();
+        y = in.readInt();
+        relocated();
+        direction = Cardinal.values()[in.readByte()];
+        numExplored = in.readDouble();
+        currentTime = in.readDouble();
+        ignorePortal = in.readBoolean();
+        isTeleported = in.readBoolean();
+
+        TileMap tileMap = scenario.TILE_MAP;
+        seenTiles.clear();
+        for (int i = in.readInt(); i > 0; i--)
+            seenTiles.add(tileMap.getTile(in.readInt(), in.readInt()));
+        seenFurthestTiles.clear();
+        invalidateVision();
+
+        //a shared map is read again by every agent of the team, each time with the same nodes
+        getKnowledgeMap().readState(in);
+        seen.readState(in);
+    }
+
     public void setTime(double elapsedTimeSteps) {
         currentTime = elapsedTimeSteps;
     }
 
     @Override
     public String toString() {
-        XY global = getXY();
         return "Agent{" +
                 "x=" + x +
                 ", y=" + y +
-                ", globalX=" + global.x() +
-                ", globalY=" + global.y() +
+                ", globalX=" + getX() +
+                ", globalY=" + getY() +
                 ", direction=" + direction +
                 ", agentType=" + agentType +
                 '}';
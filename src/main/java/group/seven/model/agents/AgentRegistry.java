@@ -0,0 +1,160 @@
+package group.seven.model.agents;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * The agents still in the game, the guards and the intruders each packed in their own array.
+ * A caught intruder is removed by moving the last intruder into its place, so loops over the live agents
+ * only ever touch live agents of the type they expect, and get shorter as intruders are caught.
+ * The order of the agents of a team is their order of registration until one of them is removed.
+ */
+public final class AgentRegistry implements Iterable<Agent> {
+    private Guard[] guards = new Guard[4];
+    private Intruder[] intruders = new Intruder[4];
+    private int numGuards = 0, numIntruders = 0;
+    //index of every live agent in its array, by agent ID, -1 if it is not (or no longer) registered
+    private int[] slotOf = new int[0];
+
+    public void add(Agent agent) {
+        int id = agent.getID();
+        if (id >= slotOf.length) {
+            int length = slotOf.length;
+            slotOf = Arrays.copyOf(slotOf, Math.max(id + 1, 2 * length));
+            Arrays.fill(slotOf, length, slotOf.length, -1);
+        }
+        if (slotOf[id] != -1)
+            throw new IllegalArgumentException("agent " + id + " is already registered");
+
+        if (agent instanceof Guard guard) {
+            if (numGuards == guards.length)
+                guards = Arrays.copyOf(guards, 2 * numGuards);
+            slotOf[id] = numGuards;
+            guards[numGuards++] = guard;
+        } else if (agent instanceof Intruder intruder) {
+            if (numIntruders == intruders.length)
+                intruders = Arrays.copyOf(intruders, 2 * numIntruders);
+            slotOf[id] = numIntruders;
+            intruders[numIntruders++] = intruder;
+        } else {
+            throw new IllegalArgumentException("unknown kind of agent " + agent);
+        }
+    }
+
+    /**
+     * @return whether the agent was registered
+     */
+    public boolean remove(Agent agent) {
+        if (!contains(agent))
+            return false;
+
+        int slot = slotOf[agent.getID()];
+        slotOf[agent.getID()] = -1;
+        if (agent instanceof Guard) {
+            Guard last = guards[--numGuards];
+            guards[numGuards] = null;
+            if (last != agent) {
+                guards[slot] = last;
+                slotOf[last.getID()] = slot;
+            }
+        } else {
+            Intruder last = intruders[--numIntruders];
+            intruders[numIntruders] = null;
+            if (last != agent) {
+                intruders[slot] = last;
+                slotOf[last.getID()] = slot;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(Agent agent) {
+        int id = agent.getID();
+        if (id < 0 || id >= slotOf.length || slotOf[id] == -1)
+            return false;
+        return agent instanceof Guard ? guards[slotOf[id]] == agent : intruders[slotOf[id]] == agent;
+    }
+
+    public int size() {
+        return numGuards + numIntruders;
+    }
+
+    public int numGuards() {
+        return numGuards;
+    }
+
+    public int numIntruders() {
+        return numIntruders;
+    }
+
+    public Guard getGuard(int i) {
+        return guards[Objects.checkIndex(i, numGuards)];
+    }
+
+    public Intruder getIntruder(int i) {
+        return intruders[Objects.checkIndex(i, numIntruders)];
+    }
+
+    /**
+     * @param i index from 0 to {@link #size()}, the guards come first
+     * @return the i-th live agent
+     */
+    public Agent get(int i) {
+        return i < numGuards ? getGuard(i) : getIntruder(i - numGuards);
+    }
+
+    public void forEachGuard(Consumer<? super Guard> action) {
+        for (int i = 0; i < numGuards; i++)
+            action.accept(guards[i]);
+    }
+
+    public void forEachIntruder(Consumer<? super Intruder> action) {
+        for (int i = 0; i < numIntruders; i++)
+            action.accept(intruders[i]);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Agent> action) {
+        forEachGuard(action);
+        forEachIntruder(action);
+    }
+
+    /**
+     * @return the live agents, guards first
+     */
+    public Agent[] toArray() {
+        Agent[] agents = Arrays.copyOf(guards, size(), Agent[].class);
+        System.arraycopy(intruders, 0, agents, numGuards, numIntruders);
+        return agents;
+    }
+
+    public void clear() {
+        Arrays.fill(guards, null);
+        Arrays.fill(intruders, null);
+        Arrays.fill(slotOf, -1);
+        numGuards = 0;
+        numIntruders = 0;
+    }
+
+    @Override
+    public Iterator<Agent> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public Agent next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return get(next++);
+            }
+        };
+    }
+}
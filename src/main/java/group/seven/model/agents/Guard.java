@@ -11,8 +11,10 @@ import group.seven.model.environment.Marker;
 import group.seven.model.environment.Pheromone;
 import group.seven.model.environment.Scenario;
 import group.seven.model.environment.Tile;
-import group.seven.utils.Config;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -49,8 +51,8 @@ public class Guard extends Agent {
         ID = s.getId();
         agentType = GUARD;
         currentSpeed = 3; //DEFAULT //TODO base speed?
-        direction = Cardinal.randomDirection();
-        algorithm = initAlgo(Config.ALGORITHM_GUARD); //DEFAULT
+        direction = Cardinal.randomDirection(random);
+        algorithm = initAlgo(scenario.GUARD_ALGORITHM); //DEFAULT
         vision = new ConeVision(this); //DEFAULT
         maxSpeed = (int) scenario.GUARD_SPRINT_SPEED;
 
@@ -69,13 +71,27 @@ public class Guard extends Agent {
     }
 
     @Override
-    public void updateVision() {
+    protected void computeVision(List<Tile> observedTiles) {
         seenTiles.clear();
-        List<Tile> newTiles = vision.updateAndGetVisionAgent(this);
-        seenTiles = duplicatedTiles(seenTiles, newTiles);
+        vision.updateVision(this, observedTiles);
+        seenTiles.addAll(observedTiles);
         //print(seenTiles);
     }
 
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        out.writeInt(currentSpeed);
+        algorithm.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        super.readState(in);
+        currentSpeed = in.readInt();
+        algorithm.readState(in);
+    }
+
     @Override
     public Move calculateMove() {
         return algorithm.getNext();
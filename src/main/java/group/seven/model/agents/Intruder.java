@@ -17,8 +17,10 @@ import group.seven.logic.vision.RectangleVision;
 import group.seven.logic.vision.Vision;
 import group.seven.model.environment.Scenario;
 import group.seven.model.environment.Tile;
-import group.seven.utils.Config;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 import static group.seven.enums.TileType.INTRUDER;
@@ -34,6 +36,8 @@ public class Intruder extends Agent {
     private Cardinal orientationToGoal;
     private double angleToGoal;  // in degrees
     private int inTargetArea = 0;
+    private boolean inTarget;
+    private boolean trackTarget; //false until constructed, relocated() is already called by the Agent constructor
 
     private boolean firstTimeInTargetArea = true;
     private boolean alive = true;
@@ -49,12 +53,14 @@ public class Intruder extends Agent {
         super(x, y, s);
         ID = s.getId();
         agentType = INTRUDER;
-        direction = Cardinal.randomDirection();      //DEFAULT
-        algorithm = initAlgo(Config.ALGORITHM_INTRUDER); //DEFAULT
+        direction = Cardinal.randomDirection(random);      //DEFAULT
+        algorithm = initAlgo(scenario.INTRUDER_ALGORITHM); //DEFAULT
         vision = new ConeVision(this); //DEFAULT
         updateOrientationToGoal();
         currentSpeed = 3; //TODO base speed?
         maxSpeed = (int) scenario.INTRUDER_SPRINT_SPEED;
+        trackTarget = true;
+        updateTargetArea();
     }
 
     //Builder methods, just experimenting, feel free to ignore. Would want to use for easy customization
@@ -91,6 +97,35 @@ public class Intruder extends Agent {
         this.orientationToGoal = Pythagoras.fromAngleToCardinal(angle, agentGlobal.x(), x, agentGlobal.y(), y); //todo changed to match frame
     }
 
+    @Override
+    protected void relocated() {
+        super.relocated();
+        if (trackTarget)
+            updateTargetArea();
+    }
+
+    /**
+     * Registers entering and leaving the target area with the scenario, so the simulation only has to look
+     * at the intruders that are actually in there. Leaving resets the time spent in the target area
+     */
+    private void updateTargetArea() {
+        boolean nowInTarget = alive && scenario.targetArea.contains(getXY());
+        if (nowInTarget == inTarget)
+            return;
+
+        inTarget = nowInTarget;
+        if (inTarget) {
+            scenario.intrudersInTarget.add(this);
+        } else {
+            scenario.intrudersInTarget.remove(this);
+            intruderNotInTargetArea();
+        }
+    }
+
+    public boolean isInTarget() {
+        return inTarget;
+    }
+
     public Cardinal getOrientationToGoal() {
         return this.orientationToGoal;
     }
@@ -100,9 +135,9 @@ public class Intruder extends Agent {
     }
 
     @Override
-    public void updateVision() {
-        List<Tile> newTiles = vision.updateAndGetVisionAgent(this);
-        seenTiles = duplicatedTiles(seenTiles, newTiles);
+    protected void computeVision(List<Tile> observedTiles) {
+        vision.updateVision(this, observedTiles);
+        seenTiles.addAll(observedTiles);
         /*
         Could also use the below if the vision stores an instance of the agent.
         Otherwise, would recommend making vision methods static and any have vision status effects stored in agent
@@ -111,15 +146,40 @@ public class Intruder extends Agent {
          */
     }
 
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        out.writeInt(currentSpeed);
+        out.writeInt(inTargetArea);
+        out.writeBoolean(firstTimeInTargetArea);
+        out.writeBoolean(alive);
+        algorithm.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        super.readState(in);
+        currentSpeed = in.readInt();
+        inTargetArea = in.readInt();
+        firstTimeInTargetArea = in.readBoolean();
+        if (!in.readBoolean() && alive) {
+            alive = false;
+            inTarget = false;
+            scenario.removeIntruder(this);
+        }
+        updateOrientationToGoal();
+        algorithm.readState(in);
+    }
+
     @Override
     public Move calculateMove() {
         //Check if Intruder is in the target area
-        if (scenario.targetArea.contains(getXY())) {
+        if (inTarget) {
 //        if (Scenario.targetArea.area().contains(this.getX(),this.getY())) {
             if (firstTimeInTargetArea) {
                 print("Intruder " + getID() + " made it to target");
                 //TODO handle leaving and returning to target area
-                scenario.INTRUDERS_AT_TARGET++;
+                applyEffect(() -> scenario.INTRUDERS_AT_TARGET++);
                 firstTimeInTargetArea = false;
                 return algorithm.getNext();
             } else {
@@ -184,6 +244,7 @@ public class Intruder extends Agent {
             case RECTANGULAR -> new RectangleVision(this);
             case CONE -> new ConeVision(this);
         };
+        invalidateVision();
         return this;
     }
 
@@ -203,6 +264,7 @@ public class Intruder extends Agent {
         if (alive) {
             //scenario.INTRUDERS_CAUGHT++;
             alive = false;
+            inTarget = false;
             System.out.println("\nIntruder " + ID + " just got shot");
             scenario.removeIntruder(this);
         }
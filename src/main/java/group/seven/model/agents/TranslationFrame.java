@@ -0,0 +1,58 @@
+package group.seven.model.agents;
+
+import group.seven.logic.geometric.XY;
+import javafx.scene.transform.Translate;
+
+/**
+ * Coordinate frame that only translates: the local origin (0,0) is the global point (originX, originY).
+ * This is the only frame agents use, and unlike {@link Frame} it converts plain ints without allocating.
+ * Use {@link #toFrame()} where a general JavaFX transform is needed.
+ *
+ * @param originX global x-coordinate of the local origin
+ * @param originY global y-coordinate of the local origin
+ */
+public record TranslationFrame(int originX, int originY) {
+
+    public TranslationFrame(XY origin) {
+        this(origin.x(), origin.y());
+    }
+
+    public int toLocalX(int globalX) {
+        return globalX - originX;
+    }
+
+    public int toLocalY(int globalY) {
+        return globalY - originY;
+    }
+
+    public int toGlobalX(int localX) {
+        return localX + originX;
+    }
+
+    public int toGlobalY(int localY) {
+        return localY + originY;
+    }
+
+    public XY convertToLocal(int x, int y) {
+        return new XY(toLocalX(x), toLocalY(y));
+    }
+
+    public XY convertToLocal(XY xy) {
+        return convertToLocal(xy.x(), xy.y());
+    }
+
+    public XY convertToGlobal(int x, int y) {
+        return new XY(toGlobalX(x), toGlobalY(y));
+    }
+
+    public XY convertToGlobal(XY xy) {
+        return convertToGlobal(xy.x(), xy.y());
+    }
+
+    /**
+     * @return the same frame as a general {@link Frame}
+     */
+    public Frame toFrame() {
+        return new Frame(new Translate(-originX, -originY));
+    }
+}
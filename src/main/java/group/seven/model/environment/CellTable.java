@@ -0,0 +1,89 @@
+package group.seven.model.environment;
+
+import java.util.Arrays;
+
+/**
+ * The slots of a hash table keyed by cell ids, with open addressing and linear probing. The values of the cells are
+ * kept by the owner of the table, in arrays indexed by the same slots, and are moved along by the {@link Shift} given
+ * to {@link #remove} when removing a cell moves another one.
+ */
+final class CellTable {
+    static final int FREE = -1;
+
+    /**
+     * Moves the values of the entry in one slot to another slot
+     */
+    @FunctionalInterface
+    interface Shift {
+        void move(int from, int to);
+    }
+
+    //cells[i] == FREE is an empty slot
+    private final int[] cells;
+
+    /**
+     * @param capacity number of slots, a power of two
+     */
+    CellTable(int capacity) {
+        cells = new int[capacity];
+        Arrays.fill(cells, FREE);
+    }
+
+    int capacity() {
+        return cells.length;
+    }
+
+    /**
+     * @return cell in the slot, {@link #FREE} if there is none
+     */
+    int cell(int slot) {
+        return cells[slot];
+    }
+
+    /**
+     * @return slot of the cell, -1 if it is not in the table
+     */
+    int find(int cell) {
+        for (int slot = home(cell); cells[slot] != FREE; slot = (slot + 1) & (cells.length - 1))
+            if (cells[slot] == cell)
+                return slot;
+        return -1;
+    }
+
+    /**
+     * Adds the cell if it is not in the table yet, the table must have a free slot left
+     *
+     * @return slot of the cell
+     */
+    int add(int cell) {
+        int slot = home(cell);
+        while (cells[slot] != FREE && cells[slot] != cell)
+            slot = (slot + 1) & (cells.length - 1);
+        cells[slot] = cell;
+        return slot;
+    }
+
+    /**
+     * Removes the cell in the slot with backward shift deletion, which keeps every probe sequence without holes
+     *
+     * @param shift moves the values of each entry shifted back into a freed slot
+     */
+    void remove(int slot, Shift shift) {
+        int mask = cells.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; cells[next] != FREE; next = (next + 1) & mask) {
+            int home = home(cells[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                cells[hole] = cells[next];
+                shift.move(next, hole);
+                hole = next;
+            }
+        }
+        cells[hole] = FREE;
+    }
+
+    private int home(int cell) {
+        int hash = cell * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & (cells.length - 1);
+    }
+}
@@ -0,0 +1,129 @@
+package group.seven.model.environment;
+
+import group.seven.logic.geometric.Cells;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import static group.seven.enums.TileType.WALL;
+
+/**
+ * The frontier of a {@link KnowledgeMap}: the discovered tiles that are not walls and have an undiscovered tile next
+ * to them, kept up to date as tiles are discovered. Discovering a tile can only add that tile to the frontier, and
+ * only take tiles around it out, so tiles are added when discovered and the ones that left are skipped when the
+ * frontier is read. Reading it thus costs in the order of its size, not of the size of the map, and never writes:
+ * agents sharing a map can read it at the same time. The tiles that left are dropped while tiles are discovered,
+ * once they could make up half of the list.
+ * <p>
+ * Tiles are given as cell ids of the map (see {@link Cells}), in the order they were discovered.
+ */
+public final class Frontier {
+    private final KnowledgeMap map;
+    //cell ids, the first size of them are, or were, frontier tiles
+    private int[] cells = new int[64];
+    private int size = 0;
+    //size right after the last compaction
+    private int compacted = 0;
+
+    Frontier(KnowledgeMap map) {
+        this.map = map;
+    }
+
+    /**
+     * Has to be called by the map every time it discovers a tile
+     */
+    void discovered(int x, int y) {
+        if (!isFrontier(x, y))
+            return;
+        if (size >= 2 * compacted + 64)
+            compact();
+        if (size == cells.length)
+            cells = Arrays.copyOf(cells, 2 * size);
+        cells[size++] = map.cellId(x, y);
+    }
+
+    void clear() {
+        size = 0;
+        compacted = 0;
+    }
+
+    /**
+     * @return whether the tile is discovered, not a wall, and next to a tile that is not discovered
+     */
+    public boolean isFrontier(int x, int y) {
+        if (!map.isKnown(x, y) || map.getType(x, y) == WALL)
+            return false;
+        return isUnknown(x, y - 1) || isUnknown(x + 1, y) || isUnknown(x, y + 1) || isUnknown(x - 1, y);
+    }
+
+    public boolean isFrontier(int cell) {
+        return isFrontier(Cells.x(cell, map.getWidth()), Cells.y(cell, map.getWidth()));
+    }
+
+    public int size() {
+        int count = 0;
+        for (int i = 0; i < size; i++)
+            if (isFrontier(cells[i]))
+                count++;
+        return count;
+    }
+
+    public boolean isEmpty() {
+        for (int i = 0; i < size; i++)
+            if (isFrontier(cells[i]))
+                return false;
+        return true;
+    }
+
+    /**
+     * Passes the cell id of every frontier tile to the action
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++)
+            if (isFrontier(cells[i]))
+                action.accept(cells[i]);
+    }
+
+    /**
+     * @return cell ids of the frontier tiles
+     */
+    public int[] toArray() {
+        int[] frontier = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++)
+            if (isFrontier(cells[i]))
+                frontier[count++] = cells[i];
+        return Arrays.copyOf(frontier, count);
+    }
+
+    /**
+     * @return cell id of the frontier tile with the smallest manhattan distance to (x, y), the one discovered first on
+     * ties. {@link Cells#NONE} if the frontier is empty
+     */
+    public int nearest(int x, int y) {
+        int width = map.getWidth();
+        int nearest = Cells.NONE, best = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int d = Math.abs(Cells.x(cells[i], width) - x) + Math.abs(Cells.y(cells[i], width) - y);
+            if (d < best && isFrontier(cells[i])) {
+                best = d;
+                nearest = cells[i];
+            }
+        }
+        return nearest;
+    }
+
+    //drops the tiles that have no undiscovered neighbour anymore, keeping the order of the others
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if (isFrontier(cells[i]))
+                cells[kept++] = cells[i];
+        size = kept;
+        compacted = kept;
+    }
+
+    private boolean isUnknown(int x, int y) {
+        return map.isInBounds(x, y) && !map.isKnown(x, y);
+    }
+}
@@ -0,0 +1,182 @@
+package group.seven.model.environment;
+
+import group.seven.enums.TileType;
+import group.seven.logic.geometric.Cells;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * What agents know of the map: which tiles they discovered, their type and the agent last seen on them.
+ * Every agent has its own, unless the scenario shares one per team ({@link Scenario#SHARED_TEAM_MAPS}), then what a
+ * teammate discovered is stored once and known to all. What each agent saw itself is kept in its {@link SeenOverlay}.
+ * <p>
+ * {@link NodeKnowledgeMap} keeps a linked {@link TileNode} per discovered tile, {@link PackedKnowledgeMap} a byte
+ * per tile (optionally off-heap) and only hands out nodes as views. Which one agents get is set by
+ * {@link Scenario#PACKED_KNOWLEDGE_MAPS}. Both keep their {@link Frontier} up to date as tiles are discovered.
+ */
+public abstract class KnowledgeMap {
+    private static final TileType[] TYPES = TileType.values();
+
+    protected final Scenario scenario;
+    protected final int width, height;
+    //implementations report every tile they discover to it
+    protected final Frontier frontier = new Frontier(this);
+
+    protected KnowledgeMap(Scenario scenario) {
+        this.scenario = scenario;
+        width = scenario.WIDTH + 1;
+        height = scenario.HEIGHT + 1;
+    }
+
+    /**
+     * @return a new, empty knowledge map of the kind the scenario asks for
+     */
+    public static KnowledgeMap of(Scenario scenario) {
+        return scenario.PACKED_KNOWLEDGE_MAPS
+                ? new PackedKnowledgeMap(scenario, scenario.OFF_HEAP_KNOWLEDGE_MAPS)
+                : new NodeKnowledgeMap(scenario);
+    }
+
+    /**
+     * @return the node of the tile, null if it was not discovered or is outside the map
+     */
+    public abstract TileNode get(int x, int y);
+
+    /**
+     * @return whether the tile was discovered, false outside the map
+     */
+    public abstract boolean isKnown(int x, int y);
+
+    /**
+     * @return type of the tile, null if it was not discovered or is outside the map
+     */
+    public abstract TileType getType(int x, int y);
+
+    /**
+     * @return type of the agent on the tile the last time it was seen, null if there was none
+     */
+    public abstract TileType getAgentType(int x, int y);
+
+    public abstract void setAgentType(int x, int y, TileType agentType);
+
+    /**
+     * The nodes indexed [x][y], null for tiles that were not discovered. Meant to be read, discover tiles through
+     * {@link #update(List)}. Implementations that do not store nodes create all of them, use {@link #get(int, int)}
+     * and {@link #isKnown(int, int)} instead where possible
+     *
+     * @return the nodes of the map
+     */
+    public abstract TileNode[][] getNodes();
+
+    /**
+     * @return number of discovered tiles
+     */
+    public abstract int size();
+
+    /**
+     * Updates the map with the seen tiles: discovers the new ones and refreshes what is on the known ones
+     *
+     * @param seen tiles that were just seen
+     */
+    public abstract void update(List<Tile> seen);
+
+    /**
+     * Discovers the tile, if it was not yet
+     *
+     * @return the node of the tile
+     */
+    public abstract TileNode discover(Tile tile);
+
+    /**
+     * Links every node again, e.g. after many were discovered at once
+     */
+    public abstract void relinkAll();
+
+    public abstract void clear();
+
+    /**
+     * @return the discovered tiles that are next to undiscovered ones
+     */
+    public Frontier getFrontier() {
+        return frontier;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * @return cell id of (x, y), the same as on the TileMap. See {@link Cells}
+     */
+    public int cellId(int x, int y) {
+        return Cells.id(x, y, width);
+    }
+
+    /**
+     * @return whether the tile with the cell id was discovered, false outside the map
+     */
+    public boolean isKnown(int cell) {
+        return Cells.isInBounds(cell, width, height) && isKnown(Cells.x(cell, width), Cells.y(cell, width));
+    }
+
+    /**
+     * @return type of the tile with the cell id, null if it was not discovered or is outside the map
+     */
+    public TileType getType(int cell) {
+        return Cells.isInBounds(cell, width, height) ? getType(Cells.x(cell, width), Cells.y(cell, width)) : null;
+    }
+
+    Scenario getScenario() {
+        return scenario;
+    }
+
+    /**
+     * Writes the discovered tiles and the agents seen on them, column by column
+     *
+     * @param out stream to write to
+     * @throws IOException if the stream does
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(size());
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (isKnown(x, y)) {
+                    TileType agentType = getAgentType(x, y);
+                    out.writeInt(x);
+                    out.writeInt(y);
+                    out.writeByte(agentType == null ? -1 : agentType.ordinal());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads back what {@link #writeState(DataOutput)} wrote. The TileMap has to be restored before
+     *
+     * @param in stream to read from
+     * @throws IOException if the stream does
+     */
+    public void readState(DataInput in) throws IOException {
+        clear();
+        TileMap tileMap = scenario.TILE_MAP;
+        for (int i = in.readInt(); i > 0; i--) {
+            int x = in.readInt(), y = in.readInt();
+            int agentType = in.readByte();
+            discover(tileMap.getTile(x, y));
+            setAgentType(x, y, agentType < 0 ? null : TYPES[agentType]);
+        }
+        //the portal exits only exist once the whole map is read
+        relinkAll();
+    }
+}
@@ -0,0 +1,126 @@
+package group.seven.model.environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * The markers on the map, bucketed by the chunk of CHUNK x CHUNK tiles they lie in. Finding the markers on a tile
+ * or in an area only looks at the markers of the chunks it overlaps, so it stays cheap however many are dropped.
+ * Within a chunk the markers keep the order they were added in.
+ */
+public final class MarkerStore implements Iterable<Marker> {
+    private static final int SHIFT = 3;
+    public static final int CHUNK = 1 << SHIFT;
+
+    private final int width, height;
+    private final int chunksX;
+    //a list per chunk, created when the first marker is dropped in it. chunk = (y >> SHIFT) * chunksX + (x >> SHIFT)
+    private final List<Marker>[] chunks;
+    private int size = 0;
+
+    /**
+     * @param width  number of tiles per row
+     * @param height number of rows
+     */
+    @SuppressWarnings("unchecked")
+    public MarkerStore(int width, int height) {
+        this.width = width;
+        this.height = height;
+        chunksX = (width + CHUNK - 1) >> SHIFT;
+        chunks = (List<Marker>[]) new List<?>[chunksX * ((height + CHUNK - 1) >> SHIFT)];
+    }
+
+    public void add(Marker marker) {
+        int chunk = chunk(marker.getXCoordinate(), marker.getYCoordinate());
+        if (chunks[chunk] == null)
+            chunks[chunk] = new ArrayList<>(4);
+        chunks[chunk].add(marker);
+        size++;
+    }
+
+    /**
+     * @return whether the marker was on the map
+     */
+    public boolean remove(Marker marker) {
+        List<Marker> bucket = chunks[chunk(marker.getXCoordinate(), marker.getYCoordinate())];
+        if (bucket == null || !bucket.remove(marker))
+            return false;
+        size--;
+        return true;
+    }
+
+    /**
+     * Adds the markers on the tile (x, y) to the given collection
+     */
+    public void collectAt(int x, int y, Collection<? super Marker> into) {
+        List<Marker> bucket = chunks[chunk(x, y)];
+        if (bucket == null)
+            return;
+        for (Marker marker : bucket)
+            if (marker.getXCoordinate() == x && marker.getYCoordinate() == y)
+                into.add(marker);
+    }
+
+    /**
+     * @return the markers on the tile (x, y)
+     */
+    public List<Marker> getAt(int x, int y) {
+        List<Marker> markers = new ArrayList<>(0);
+        collectAt(x, y, markers);
+        return markers;
+    }
+
+    /**
+     * Passes every marker with minX <= x <= maxX and minY <= y <= maxY to the action, the parts of the area outside
+     * the map have none
+     */
+    public void forEachIn(int minX, int minY, int maxX, int maxY, Consumer<? super Marker> action) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, width - 1);
+        maxY = Math.min(maxY, height - 1);
+        for (int cy = minY >> SHIFT; minX <= maxX && cy <= maxY >> SHIFT; cy++) {
+            for (int cx = minX >> SHIFT; cx <= maxX >> SHIFT; cx++) {
+                List<Marker> bucket = chunks[cy * chunksX + cx];
+                if (bucket == null)
+                    continue;
+                for (Marker marker : bucket) {
+                    int x = marker.getXCoordinate(), y = marker.getYCoordinate();
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                        action.accept(marker);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of markers on the map
+     */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(chunks, null);
+        size = 0;
+    }
+
+    /**
+     * @return iterator over all the markers, chunk by chunk
+     */
+    @Override
+    public Iterator<Marker> iterator() {
+        return Arrays.stream(chunks).filter(Objects::nonNull).flatMap(List::stream).iterator();
+    }
+
+    private int chunk(int x, int y) {
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        return (y >> SHIFT) * chunksX + (x >> SHIFT);
+    }
+}
@@ -0,0 +1,139 @@
+package group.seven.model.environment;
+
+import group.seven.enums.TileType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A knowledge map with a node for every discovered tile, linked to the discovered tiles around it.
+ */
+public class NodeKnowledgeMap extends KnowledgeMap {
+    //indexed [x][y], in global coordinates, null for tiles nobody discovered yet
+    private final TileNode[][] nodes;
+    //portal nodes whose exit is not discovered yet, linked once it is
+    private final List<TileNode> unlinkedPortals = new ArrayList<>(0);
+    private int size = 0;
+
+    public NodeKnowledgeMap(Scenario scenario) {
+        super(scenario);
+        nodes = new TileNode[width][height];
+    }
+
+    @Override
+    public TileNode get(int x, int y) {
+        return isInBounds(x, y) ? nodes[x][y] : null;
+    }
+
+    @Override
+    public boolean isKnown(int x, int y) {
+        return get(x, y) != null;
+    }
+
+    @Override
+    public TileType getType(int x, int y) {
+        TileNode node = get(x, y);
+        return node == null ? null : node.getType();
+    }
+
+    @Override
+    public TileType getAgentType(int x, int y) {
+        TileNode node = get(x, y);
+        return node == null ? null : node.getAgentType();
+    }
+
+    @Override
+    public void setAgentType(int x, int y, TileType agentType) {
+        nodes[x][y].setAgentType(agentType);
+    }
+
+    @Override
+    public TileNode[][] getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Known nodes only refresh what is on them. The links between nodes only change when a node is discovered,
+     * so then only the new node and the ones around it are linked again
+     */
+    @Override
+    public void update(List<Tile> seen) {
+        boolean discovered = false;
+        for (Tile tile : seen) {
+            TileNode node = nodes[tile.getX()][tile.getY()];
+            if (node != null)
+                node.update();
+            else {
+                discover(tile);
+                discovered = true;
+            }
+        }
+
+        if (discovered)
+            linkPortals();
+    }
+
+    /**
+     * Adds a node for the tile, if there is none yet, and links it to the nodes around it
+     */
+    @Override
+    public TileNode discover(Tile tile) {
+        int x = tile.getX(), y = tile.getY();
+        if (nodes[x][y] != null)
+            return nodes[x][y];
+
+        TileNode node = new TileNode(tile, this);
+        nodes[x][y] = node;
+        size++;
+        relink(x, y - 1);
+        relink(x + 1, y);
+        relink(x, y + 1);
+        relink(x - 1, y);
+        if (node.isMissingExit())
+            unlinkedPortals.add(node);
+        frontier.discovered(x, y);
+        return node;
+    }
+
+    @Override
+    public void relinkAll() {
+        unlinkedPortals.clear();
+        for (TileNode[] column : nodes) {
+            for (TileNode node : column) {
+                if (node != null) {
+                    node.updateAdjacent();
+                    if (node.isMissingExit())
+                        unlinkedPortals.add(node);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (TileNode[] column : nodes)
+            Arrays.fill(column, null);
+        unlinkedPortals.clear();
+        frontier.clear();
+        size = 0;
+    }
+
+    private void linkPortals() {
+        if (unlinkedPortals.isEmpty())
+            return;
+        unlinkedPortals.forEach(TileNode::updateAdjacent);
+        unlinkedPortals.removeIf(node -> !node.isMissingExit());
+    }
+
+    private void relink(int x, int y) {
+        TileNode node = get(x, y);
+        if (node != null)
+            node.updateAdjacent();
+    }
+}
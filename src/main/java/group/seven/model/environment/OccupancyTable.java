@@ -0,0 +1,46 @@
+package group.seven.model.environment;
+
+/**
+ * The occupied cells of a {@link TileMap}: for every cell with an agent on it, the ID of one of those agents. There
+ * are never more occupied cells than agents, so it is a small hash table that does not grow, however large the map.
+ */
+final class OccupancyTable {
+    static final int EMPTY = -1;
+
+    private final CellTable cells;
+    //ID of the agent on the cell in the same slot of the table
+    private final int[] ids;
+    private final CellTable.Shift shift;
+
+    /**
+     * @param numAgents most agents on the map at once
+     */
+    OccupancyTable(int numAgents) {
+        //at most half full
+        int capacity = Integer.highestOneBit(Math.max(4, 2 * numAgents - 1)) << 1;
+        cells = new CellTable(capacity);
+        ids = new int[capacity];
+        shift = (from, to) -> ids[to] = ids[from];
+    }
+
+    /**
+     * @return ID of an agent on the cell, {@link #EMPTY} if there is none
+     */
+    int get(int cell) {
+        int slot = cells.find(cell);
+        return slot < 0 ? EMPTY : ids[slot];
+    }
+
+    /**
+     * Sets the agent found on the cell, {@link #EMPTY} if the cell is left empty
+     */
+    void put(int cell, int id) {
+        if (id != EMPTY) {
+            ids[cells.add(cell)] = id;
+            return;
+        }
+        int slot = cells.find(cell);
+        if (slot >= 0)
+            cells.remove(slot, shift);
+    }
+}
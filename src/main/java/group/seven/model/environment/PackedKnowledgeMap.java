@@ -0,0 +1,196 @@
+package group.seven.model.environment;
+
+import group.seven.enums.TileType;
+import group.seven.logic.geometric.XY;
+import group.seven.model.agents.Agent;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+
+import static group.seven.enums.TileType.GUARD;
+import static group.seven.enums.TileType.INTRUDER;
+import static group.seven.enums.TileType.PORTAL;
+
+/**
+ * A knowledge map that keeps a single byte per tile: whether it was discovered, its type and the agent last seen on
+ * it. The bytes can be kept off-heap, so many agents can each have their own map of a large map. Nodes are only
+ * created when asked for, as views on the bytes, which are equal when they stand for the same tile of the same map.
+ */
+public class PackedKnowledgeMap extends KnowledgeMap {
+    private static final TileType[] TYPES = TileType.values();
+    //bit 7: discovered, bits 4-5: agent on the tile, bits 0-3: TileType ordinal
+    private static final int KNOWN = 0x80, AGENT_SHIFT = 4, AGENT_MASK = 0x30, TYPE_MASK = 0x0F;
+    private static final int NO_AGENT = 0, GUARD_AGENT = 1, INTRUDER_AGENT = 2;
+
+    //one byte per tile, cell = y * width + x
+    private final ByteBuffer cells;
+    private int size = 0;
+
+    /**
+     * @param scenario scenario of the map
+     * @param offHeap  whether to keep the tiles in a direct buffer, outside the Java heap
+     */
+    public PackedKnowledgeMap(Scenario scenario, boolean offHeap) {
+        super(scenario);
+        if (TYPES.length > TYPE_MASK + 1)
+            throw new IllegalStateException("too many tile types to pack");
+        cells = offHeap ? ByteBuffer.allocateDirect(width * height) : ByteBuffer.allocate(width * height);
+    }
+
+    @Override
+    public TileNode get(int x, int y) {
+        return isKnown(x, y) ? new View(this, x, y) : null;
+    }
+
+    @Override
+    public boolean isKnown(int x, int y) {
+        return isInBounds(x, y) && (cell(x, y) & KNOWN) != 0;
+    }
+
+    @Override
+    public TileType getType(int x, int y) {
+        return isKnown(x, y) ? TYPES[cell(x, y) & TYPE_MASK] : null;
+    }
+
+    @Override
+    public TileType getAgentType(int x, int y) {
+        if (!isKnown(x, y))
+            return null;
+        return switch ((cell(x, y) & AGENT_MASK) >> AGENT_SHIFT) {
+            case GUARD_AGENT -> GUARD;
+            case INTRUDER_AGENT -> INTRUDER;
+            default -> null;
+        };
+    }
+
+    @Override
+    public void setAgentType(int x, int y, TileType agentType) {
+        int agent = agentType == null ? NO_AGENT : switch (agentType) {
+            case GUARD -> GUARD_AGENT;
+            case INTRUDER -> INTRUDER_AGENT;
+            default -> throw new IllegalArgumentException("not an agent type: " + agentType);
+        };
+        int i = y * width + x;
+        cells.put(i, (byte) (cells.get(i) & ~AGENT_MASK | agent << AGENT_SHIFT));
+    }
+
+    @Override
+    public TileNode[][] getNodes() {
+        TileNode[][] nodes = new TileNode[width][height];
+        for (int x = 0; x < width; x++)
+            for (int y = 0; y < height; y++)
+                nodes[x][y] = get(x, y);
+        return nodes;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void update(List<Tile> seen) {
+        for (Tile tile : seen)
+            refresh(tile);
+    }
+
+    @Override
+    public TileNode discover(Tile tile) {
+        refresh(tile);
+        return new View(this, tile.getX(), tile.getY());
+    }
+
+    //nodes link themselves when asked for their neighbours
+    @Override
+    public void relinkAll() {
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < cells.capacity(); i++)
+            cells.put(i, (byte) 0);
+        frontier.clear();
+        size = 0;
+    }
+
+    //discovers the tile if it is new, and notes the agent on it
+    private void refresh(Tile tile) {
+        int x = tile.getX(), y = tile.getY();
+        int i = y * width + x;
+        if ((cells.get(i) & KNOWN) == 0) {
+            cells.put(i, (byte) (KNOWN | tile.getType().ordinal()));
+            size++;
+            frontier.discovered(x, y);
+        }
+        Agent onTile = scenario.TILE_MAP.getAgentAt(x, y);
+        setAgentType(x, y, onTile == null ? null : onTile.agentType);
+    }
+
+    private int cell(int x, int y) {
+        return cells.get(y * width + x);
+    }
+
+    /**
+     * A discovered tile, read from the bytes of the map
+     */
+    private static final class View extends TileNode {
+        private final PackedKnowledgeMap packed;
+
+        View(PackedKnowledgeMap map, int x, int y) {
+            super(map, x, y);
+            packed = map;
+        }
+
+        @Override
+        public TileType getType() {
+            return packed.getType(x, y);
+        }
+
+        @Override
+        public TileType getAgentType() {
+            return packed.getAgentType(x, y);
+        }
+
+        @Override
+        public void setAgentType(TileType agentType) {
+            packed.setAgentType(x, y, agentType);
+        }
+
+        @Override
+        public Adjacent<TileNode> getAdjacent() {
+            TileNode target = null;
+            if (getType() == PORTAL) {
+                XY exit = scenario.TILE_MAP.getPortalExit(x, y);
+                if (exit != null)
+                    target = packed.get(exit.x(), exit.y());
+            }
+            return new Adjacent<>(packed.get(x, y - 1), packed.get(x + 1, y), packed.get(x, y + 1), packed.get(x - 1, y), target);
+        }
+
+        @Override
+        public void update() {
+            Agent onTile = scenario.TILE_MAP.getAgentAt(x, y);
+            setAgentType(onTile == null ? null : onTile.agentType);
+        }
+
+        @Override
+        public void updateAdjacent() {
+        }
+
+        @Override
+        public boolean isMissingExit() {
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof View view && view.packed == packed && view.x == x && view.y == y;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(x, y);
+        }
+    }
+}
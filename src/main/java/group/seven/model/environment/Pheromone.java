@@ -2,6 +2,8 @@ package group.seven.model.environment;
 
 import group.seven.enums.PheromoneType;
 
+import java.util.SplittableRandom;
+
 public class Pheromone {
     public static final double maxStrength = 100;
     private final PheromoneType phermoneType;
@@ -24,9 +26,11 @@ public class Pheromone {
      * the dissipation of the smell. This way of dissipating the strength is based upon the paper:
      * Theoretical Study of ant-based Algorithms for Multi-Agent Patrolling. by Arnaud Glad, Olivier Simonin,
      * Olivier Buffet and François Charpillet.
+     *
+     * @param random random stream of the simulation the pheromone belongs to
      */
-    public void update() {
-        strength = Math.random()*strength;
+    public void update(SplittableRandom random) {
+        strength = random.nextDouble()*strength;
 //        strength = strength-1;
 //        strength -= alpha;
     }
@@ -0,0 +1,230 @@
+package group.seven.model.environment;
+
+import group.seven.utils.Config;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The pheromones on the map. Only the cells with a pheromone are stored, each with the time step its strength was
+ * last brought up to date. Reading a strength applies the decay of all the steps since without storing it, so reads
+ * change nothing and agents can read concurrently while they decide. The decay only depends on the cell and the time
+ * steps, never on the order of the reads. Stored strengths are brought up to date, and faded cells dropped, when a
+ * pheromone is raised and every {@link #PRUNE_INTERVAL} ticks, both in the sequential part of a time step. So a time
+ * step mostly only costs advancing the clock, however large the map.
+ */
+public final class PheromoneField {
+    //below this strength a pheromone is gone and its cell is dropped
+    public static final double MIN_STRENGTH = 1e-3;
+    //number of time steps between two passes that drop the faded cells
+    public static final int PRUNE_INTERVAL = 16;
+
+    /**
+     * How the strength of a pheromone fades over time
+     */
+    @FunctionalInterface
+    public interface DecayPolicy {
+        /**
+         * Has to give the same strength for the same arguments, reads are not ordered
+         *
+         * @param strength strength at time step from
+         * @param cell     cell of the pheromone
+         * @param from     time step of the last update
+         * @param to       time step now, after from
+         * @param seed     seed of the field's random draws, see {@link #draw(long, int, long)}
+         * @return strength now
+         */
+        double decay(double strength, int cell, long from, long to, long seed);
+
+        DecayPolicy NONE = (strength, cell, from, to, seed) -> strength;
+
+        /**
+         * Every time step the strength is multiplied by a random number between 0 and 1, as in
+         * {@link Pheromone#update(SplittableRandom)}. The number is drawn for the cell and the time step
+         */
+        DecayPolicy STOCHASTIC = (strength, cell, from, to, seed) -> {
+            for (long step = from + 1; step <= to && strength >= MIN_STRENGTH; step++)
+                strength *= draw(seed, cell, step);
+            return strength;
+        };
+
+        /**
+         * @return a random number in [0, 1), always the same for the same seed, cell and time step
+         */
+        static double draw(long seed, int cell, long step) {
+            //SplitMix64 finalizer over the three inputs
+            long z = seed + cell * 0x9E3779B97F4A7C15L + step * 0xC2B2AE3D27D4EB4FL;
+            z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+            z ^= z >>> 31;
+            return (z >>> 11) * 0x1.0p-53;
+        }
+    }
+
+    private CellTable cells;
+    //strength and time step of its last update of the cell in the same slot of the table
+    private double[] strengths;
+    private long[] stamps;
+    private final CellTable.Shift shift = (from, to) -> {
+        strengths[to] = strengths[from];
+        stamps[to] = stamps[from];
+    };
+    private int size = 0;
+    private long now = 0;
+    private DecayPolicy policy = Config.PHEROMONE_DECAY ? DecayPolicy.STOCHASTIC : DecayPolicy.NONE;
+    private long seed;
+
+    public PheromoneField() {
+        allocate(16);
+    }
+
+    public void setPolicy(DecayPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @param random random stream the seed of the decay policy's draws is taken from
+     */
+    public void setRandom(SplittableRandom random) {
+        seed = random.nextLong();
+    }
+
+    /**
+     * Advances the clock of the field by one time step, dropping the faded cells every {@link #PRUNE_INTERVAL} steps.
+     * Must not be called while the field is read
+     */
+    public void tick() {
+        now++;
+        if (now % PRUNE_INTERVAL != 0)
+            return;
+        for (int slot = 0; slot < cells.capacity(); ) {
+            //removing shifts a later entry into the slot, which is then looked at again
+            if (cells.cell(slot) != CellTable.FREE && refresh(slot) == 0 && cells.cell(slot) != CellTable.FREE)
+                continue;
+            slot++;
+        }
+    }
+
+    public long now() {
+        return now;
+    }
+
+    /**
+     * @return number of cells with a pheromone, including the faded ones that were not dropped yet
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reads the strength without changing the field, so it can be called from several threads at once
+     *
+     * @return strength of the pheromone on the cell, 0 if there is none
+     */
+    public double get(int cell) {
+        int slot = cells.find(cell);
+        if (slot < 0)
+            return 0;
+        double strength = decayed(slot);
+        return strength < MIN_STRENGTH ? 0 : strength;
+    }
+
+    /**
+     * Raises the pheromone on the cell to the given strength, if it is weaker
+     */
+    public void raise(int cell, double strength) {
+        int slot = cells.find(cell);
+        //refreshing can drop the cell, then it is added again below
+        if (slot >= 0 && refresh(slot) > 0) {
+            if (strength > strengths[slot])
+                strengths[slot] = strength;
+            return;
+        }
+        if (strength < MIN_STRENGTH)
+            return;
+
+        if (2 * (size + 1) > cells.capacity())
+            rehash(cells.capacity() * 2);
+        slot = cells.add(cell);
+        strengths[slot] = strength;
+        stamps[slot] = now;
+        size++;
+    }
+
+    public void clear() {
+        allocate(16);
+        size = 0;
+        now = 0;
+    }
+
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(now);
+        out.writeInt(size);
+        //in cell order: where a cell ends up in the table depends on the order the cells were raised in
+        int[] sorted = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < cells.capacity(); slot++)
+            if (cells.cell(slot) != CellTable.FREE)
+                sorted[count++] = cells.cell(slot);
+        Arrays.sort(sorted);
+        for (int cell : sorted) {
+            int slot = cells.find(cell);
+            out.writeInt(cell);
+            out.writeDouble(strengths[slot]);
+            out.writeLong(stamps[slot]);
+        }
+    }
+
+    public void readState(DataInput in) throws IOException {
+        clear();
+        long time = in.readLong();
+        for (int i = in.readInt(); i > 0; i--) {
+            int cell = in.readInt();
+            double strength = in.readDouble();
+            now = in.readLong();
+            raise(cell, strength);
+        }
+        now = time;
+    }
+
+    //strength of the slot now, without storing it
+    private double decayed(int slot) {
+        return now > stamps[slot] ? policy.decay(strengths[slot], cells.cell(slot), stamps[slot], now, seed) : strengths[slot];
+    }
+
+    //brings the strength of the slot up to date, dropping it if it faded away
+    private double refresh(int slot) {
+        strengths[slot] = decayed(slot);
+        stamps[slot] = now;
+        double strength = strengths[slot];
+        if (strength < MIN_STRENGTH) {
+            cells.remove(slot, shift);
+            size--;
+            return 0;
+        }
+        return strength;
+    }
+
+    private void rehash(int capacity) {
+        CellTable oldCells = cells;
+        double[] oldStrengths = strengths;
+        long[] oldStamps = stamps;
+        allocate(capacity);
+        for (int i = 0; i < oldCells.capacity(); i++) {
+            if (oldCells.cell(i) == CellTable.FREE)
+                continue;
+            int slot = cells.add(oldCells.cell(i));
+            strengths[slot] = oldStrengths[i];
+            stamps[slot] = oldStamps[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        cells = new CellTable(capacity);
+        strengths = new double[capacity];
+        stamps = new long[capacity];
+    }
+}
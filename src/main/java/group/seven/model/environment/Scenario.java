@@ -1,14 +1,18 @@
 package group.seven.model.environment;
 
+import group.seven.enums.AlgorithmType;
 import group.seven.enums.GameMode;
+import group.seven.enums.TileType;
 import group.seven.logic.algorithms.GeneticNeuralNetwork.GeneticAlgorithm;
 import group.seven.logic.geometric.Rectangle;
+import group.seven.logic.vision.SightListener;
 import group.seven.utils.Config;
-import group.seven.model.agents.Agent;
+import group.seven.utils.RandomSource;
+import group.seven.model.agents.AgentRegistry;
 import group.seven.model.agents.Intruder;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -21,6 +25,13 @@ public class Scenario {
     public GameMode GUARD_GAME_MODE = ALL_INTRUDERS_CAUGHT;
     public GameMode INTRUDER_GAME_MODE = ALL_INTRUDER_AT_TARGET;
     public String NAME = "untitled map";
+    public AlgorithmType GUARD_ALGORITHM = Config.ALGORITHM_GUARD;
+    public AlgorithmType INTRUDER_ALGORITHM = Config.ALGORITHM_INTRUDER;
+    //whether the agents of a team share one internal map instead of each keeping their own
+    public boolean SHARED_TEAM_MAPS = Config.SHARED_TEAM_MAPS;
+    //which kind of internal map agents keep, see KnowledgeMap
+    public boolean PACKED_KNOWLEDGE_MAPS = Config.PACKED_KNOWLEDGE_MAPS;
+    public boolean OFF_HEAP_KNOWLEDGE_MAPS = Config.OFF_HEAP_KNOWLEDGE_MAPS;
     public int WIDTH, HEIGHT;
     public int TILE_SIZE = 10;
     public double INTRUDER_BASE_SPEED, INTRUDER_SPRINT_SPEED;
@@ -36,6 +47,10 @@ public class Scenario {
 
     public int INTRUDERS_CAUGHT = 0;
     public int INTRUDERS_AT_TARGET = 0;
+    //kept up to date by the intruders as they move, in order of arrival
+    public final Set<Intruder> intrudersInTarget = new LinkedHashSet<>();
+    //notified by the guards' vision, see SimulationEngine
+    public SightListener sightListener = null;
 
     public final List<Component> walls = new ArrayList<>(20);
     public final List<Component> shadedAreas = new ArrayList<>();
@@ -43,9 +58,13 @@ public class Scenario {
 
     //replaced the get static component's method with a list containing them instead
     public final List<Component> COMPONENTS = new ArrayList<>(30);
-    public final Set<Agent> agents = new HashSet<>();
+    //the agents still in the game, caught intruders are taken out. TILE_MAP.agents keeps every agent by ID
+    public final AgentRegistry agents = new AgentRegistry();
 
     public TileMap TILE_MAP;
+    private StaticFeatures features = null;
+    private KnowledgeMap guardMap, intruderMap;
+    public RandomSource RANDOM = new RandomSource();
     private long currentTime;
     public int ID = 0;
 
@@ -73,8 +92,31 @@ public class Scenario {
         return TILE_MAP;
     }
 
+    /**
+     * @return the feature rasters of the map (wall counts, wall distance, regions), shared by all the agents
+     */
+    public StaticFeatures getFeatures() {
+        if (features == null)
+            features = TILE_MAP.getStaticFeatures();
+        return features;
+    }
+
+    /**
+     * @param team GUARD or INTRUDER
+     * @return the internal map shared by the agents of the team, created the first time it is asked for
+     */
+    public KnowledgeMap getTeamMap(TileType team) {
+        return switch (team) {
+            case GUARD -> guardMap == null ? guardMap = KnowledgeMap.of(this) : guardMap;
+            case INTRUDER -> intruderMap == null ? intruderMap = KnowledgeMap.of(this) : intruderMap;
+            default -> throw new IllegalArgumentException("no team map for " + team);
+        };
+    }
+
     public void removeIntruder(Intruder intruder) {
         agents.remove(intruder);
+        TILE_MAP.removeAgent(intruder);
+        intrudersInTarget.remove(intruder);
         INTRUDERS_CAUGHT++;
         print("Intruders caught: " + INTRUDERS_CAUGHT + "\t agents left: " + agents.size(), true);
     }
@@ -91,6 +133,20 @@ public class Scenario {
         this.chromosome = chromosome;
     }
 
+    public long getSeed() {
+        return RANDOM.seed;
+    }
+
+    /**
+     * Replaces the source of randomness of this scenario. Must be called before any agent is created,
+     * since every agent takes its own random stream from it.
+     *
+     * @param seed seed of the run
+     */
+    public void setSeed(long seed) {
+        RANDOM = new RandomSource(seed);
+    }
+
     public int getId() {
         return ID++;
     }
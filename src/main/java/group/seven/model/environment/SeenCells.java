@@ -0,0 +1,203 @@
+package group.seven.model.environment;
+
+import java.util.Arrays;
+
+/**
+ * Which agent has seen which cell of the map. Every cell keeps a word with a bit per agent, of the smallest width
+ * (8, 16, 32 or 64 bits) the agents fit in, packed into longs, as long as that is at most twice the bits the agents
+ * need. Otherwise, with a few or more than 64 agents, every agent keeps a bitset over the cells. Either way the number
+ * of cells each agent has seen is kept up to date, and team queries are bit operations and popcounts.
+ * <p>
+ * The cells are stored in blocks of BLOCK consecutive cell ids, only allocated once a cell in them is seen.
+ */
+public final class SeenCells {
+    private static final int SHIFT = 12;
+    public static final int BLOCK = 1 << SHIFT;
+
+    private final int cells;
+    private final int numAgents;
+    //width of the word of a cell as a power of two, and the mask of a word. A long holds 1 << laneShift words
+    private final int wordShift, laneShift;
+    private final long wordMask;
+    //per block one word per cell, the bit of an agent is its ID. Null if the agents keep bitsets
+    private final long[][] perCell;
+    //per agent and block a bitset over the cells of the block. Null if perCell is used
+    private final long[][][] perAgent;
+    private final int[] counts;
+
+    public SeenCells(int cells, int numAgents) {
+        this.cells = cells;
+        this.numAgents = numAgents;
+        counts = new int[numAgents];
+        int blocks = (cells + BLOCK - 1) >>> SHIFT;
+        wordShift = Math.max(3, 32 - Integer.numberOfLeadingZeros(Math.max(1, numAgents) - 1));
+        laneShift = 6 - Math.min(wordShift, 6);
+        wordMask = wordShift >= 6 ? -1L : (1L << (1 << wordShift)) - 1;
+        if (numAgents <= Long.SIZE && 1 << wordShift <= 2 * numAgents) {
+            perCell = new long[blocks][];
+            perAgent = null;
+        } else {
+            perCell = null;
+            perAgent = new long[numAgents][blocks][];
+        }
+    }
+
+    /**
+     * @return true if every cell keeps a word with the bits of the agents, false if the agents keep bitsets
+     */
+    boolean hasCellWords() {
+        return perCell != null;
+    }
+
+    /**
+     * Marks the cell as seen by the agent
+     *
+     * @return true if the agent had not seen it before
+     */
+    public boolean mark(int cell, int id) {
+        int block = cell >>> SHIFT;
+        if (perCell != null) {
+            if (perCell[block] == null)
+                perCell[block] = new long[BLOCK >>> laneShift];
+            long[] words = perCell[block];
+            int i = cell & BLOCK - 1;
+            long bit = 1L << id << lane(i);
+            if ((words[i >>> laneShift] & bit) != 0)
+                return false;
+            words[i >>> laneShift] |= bit;
+        } else {
+            if (perAgent[id][block] == null)
+                perAgent[id][block] = new long[BLOCK / Long.SIZE];
+            long[] bits = perAgent[id][block];
+            int word = (cell & BLOCK - 1) >>> 6;
+            long bit = 1L << cell;
+            if ((bits[word] & bit) != 0)
+                return false;
+            bits[word] |= bit;
+        }
+        counts[id]++;
+        return true;
+    }
+
+    public boolean isSeen(int cell, int id) {
+        if (perCell != null)
+            return (word(cell) & 1L << id) != 0;
+        long[] bits = perAgent[id][cell >>> SHIFT];
+        return bits != null && (bits[(cell & BLOCK - 1) >>> 6] & 1L << cell) != 0;
+    }
+
+    public boolean isSeenByAny(int cell) {
+        if (perCell != null)
+            return word(cell) != 0;
+        for (int id = 0; id < numAgents; id++)
+            if (isSeen(cell, id))
+                return true;
+        return false;
+    }
+
+    /**
+     * @return the IDs of the agents that have seen the cell, in increasing order
+     */
+    public int[] seenBy(int cell) {
+        if (perCell != null) {
+            long word = word(cell);
+            int[] ids = new int[Long.bitCount(word)];
+            for (int i = 0; word != 0; i++, word &= word - 1)
+                ids[i] = Long.numberOfTrailingZeros(word);
+            return ids;
+        }
+        int[] ids = new int[numAgents];
+        int found = 0;
+        for (int id = 0; id < numAgents; id++)
+            if (isSeen(cell, id))
+                ids[found++] = id;
+        return Arrays.copyOf(ids, found);
+    }
+
+    /**
+     * @return number of cells the agent has seen
+     */
+    public int count(int id) {
+        return counts[id];
+    }
+
+    /**
+     * @param ids agents of the team
+     * @return number of cells seen by at least one of the agents
+     */
+    public int countUnion(int... ids) {
+        return countTeam(ids, false);
+    }
+
+    /**
+     * @param ids agents of the team
+     * @return number of cells seen by every one of the agents
+     */
+    public int countIntersection(int... ids) {
+        return countTeam(ids, true);
+    }
+
+    private int countTeam(int[] ids, boolean all) {
+        if (ids.length == 0)
+            return all ? cells : 0;
+
+        int count = 0;
+        if (perCell != null) {
+            long team = 0;
+            for (int id : ids)
+                team |= 1L << id;
+            for (long[] words : perCell) {
+                if (words == null) //nobody has seen these cells
+                    continue;
+                for (int i = 0; i < BLOCK; i++) {
+                    long seen = words[i >>> laneShift] >>> lane(i) & wordMask & team;
+                    if (all ? seen == team : seen != 0)
+                        count++;
+                }
+            }
+            return count;
+        }
+
+        long[] team = new long[BLOCK / Long.SIZE];
+        for (int block = 0; block < perAgent[0].length; block++) {
+            Arrays.fill(team, all ? -1L : 0L);
+            boolean any = false;
+            for (int id : ids) {
+                long[] bits = perAgent[id][block];
+                if (bits == null) {
+                    if (all)
+                        Arrays.fill(team, 0L);
+                    continue;
+                }
+                any = true;
+                for (int w = 0; w < team.length; w++)
+                    team[w] = all ? team[w] & bits[w] : team[w] | bits[w];
+            }
+            if (any)
+                for (long word : team)
+                    count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public void clear() {
+        if (perCell != null)
+            Arrays.fill(perCell, null);
+        else
+            for (long[][] blocks : perAgent)
+                Arrays.fill(blocks, null);
+        Arrays.fill(counts, 0);
+    }
+
+    //the word of the cell, 0 if its block was never allocated
+    private long word(int cell) {
+        long[] words = perCell[cell >>> SHIFT];
+        int i = cell & BLOCK - 1;
+        return words == null ? 0 : words[i >>> laneShift] >>> lane(i) & wordMask;
+    }
+
+    //position of the word of the i-th cell of a block within its long
+    private int lane(int i) {
+        return (i & (1 << laneShift) - 1) << wordShift;
+    }
+}
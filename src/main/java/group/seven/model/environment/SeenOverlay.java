@@ -0,0 +1,110 @@
+package group.seven.model.environment;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * What one agent saw itself, and when it last did, on top of a (possibly shared) {@link KnowledgeMap}.
+ * The times are kept in blocks of BLOCK x BLOCK tiles, only allocated for the parts of the map the agent has seen.
+ */
+public final class SeenOverlay {
+    private static final int SHIFT = 6;
+    public static final int BLOCK = 1 << SHIFT;
+
+    private final int width, height;
+    private final int blocksX;
+    //per block, the time every tile was last seen at, NaN if it never was
+    private final float[][] blocks;
+    private int count = 0;
+
+    /**
+     * @param width  number of tiles per row
+     * @param height number of rows
+     */
+    public SeenOverlay(int width, int height) {
+        this.width = width;
+        this.height = height;
+        blocksX = (width + BLOCK - 1) >> SHIFT;
+        blocks = new float[blocksX * ((height + BLOCK - 1) >> SHIFT)][];
+    }
+
+    /**
+     * Records that the agent saw the tile at the given time
+     */
+    public void see(int x, int y, double time) {
+        int block = block(x, y);
+        if (blocks[block] == null) {
+            blocks[block] = new float[BLOCK * BLOCK];
+            Arrays.fill(blocks[block], Float.NaN);
+        }
+        int i = index(x, y);
+        if (Float.isNaN(blocks[block][i]))
+            count++;
+        blocks[block][i] = (float) time;
+    }
+
+    public boolean hasSeen(int x, int y) {
+        return !Double.isNaN(lastSeen(x, y));
+    }
+
+    /**
+     * @return time the agent last saw the tile, NaN if it never did or the tile is outside the map
+     */
+    public double lastSeen(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return Double.NaN;
+        float[] times = blocks[block(x, y)];
+        return times == null ? Double.NaN : times[index(x, y)];
+    }
+
+    /**
+     * @return number of tiles the agent has seen
+     */
+    public int count() {
+        return count;
+    }
+
+    public void clear() {
+        Arrays.fill(blocks, null);
+        count = 0;
+    }
+
+    public void writeState(DataOutput out) throws IOException {
+        int allocated = 0;
+        for (float[] times : blocks)
+            if (times != null)
+                allocated++;
+        out.writeInt(allocated);
+        for (int block = 0; block < blocks.length; block++) {
+            if (blocks[block] == null)
+                continue;
+            out.writeInt(block);
+            for (float time : blocks[block])
+                out.writeFloat(time);
+        }
+    }
+
+    public void readState(DataInput in) throws IOException {
+        clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            int block = in.readInt();
+            float[] times = new float[BLOCK * BLOCK];
+            for (int j = 0; j < times.length; j++) {
+                times[j] = in.readFloat();
+                if (!Float.isNaN(times[j]))
+                    count++;
+            }
+            blocks[block] = times;
+        }
+    }
+
+    private int block(int x, int y) {
+        return (y >> SHIFT) * blocksX + (x >> SHIFT);
+    }
+
+    private static int index(int x, int y) {
+        return (y & (BLOCK - 1)) << SHIFT | (x & (BLOCK - 1));
+    }
+}
@@ -0,0 +1,175 @@
+package group.seven.model.environment;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static group.seven.enums.TileType.WALL;
+
+/**
+ * Feature rasters that only depend on the walls of a map: a summed-area table of the walls (so the walls or free tiles
+ * in any rectangle are counted in O(1)), the distance of every tile to the nearest wall and the connected regions of
+ * free tiles. They are computed once per map, in parallel over rows and columns, and shared read-only by every
+ * algorithm of every run on it. See {@link Scenario#getFeatures()}.
+ */
+public final class StaticFeatures {
+    public final int width, height;
+    //walls in the rectangle [0, x) x [0, y), (width + 1) x (height + 1) entries
+    private final int[] wallSums;
+    //manhattan distance to the nearest wall, 0 on walls, Integer.MAX_VALUE / 2 on maps without walls
+    private final int[] wallDistance;
+    //4-connected regions of free tiles, numbered from 1, 0 on walls
+    private final int[] components;
+    private final int numComponents;
+
+    /**
+     * @param width  number of tiles per row
+     * @param height number of rows
+     * @param types  TileType ordinal of every tile, index y * width + x
+     */
+    StaticFeatures(int width, int height, ByteBuffer types) {
+        this.width = width;
+        this.height = height;
+        byte wall = (byte) WALL.ordinal();
+        boolean[] walls = new boolean[width * height];
+        for (int i = 0; i < walls.length; i++)
+            walls[i] = types.get(i) == wall;
+
+        wallSums = new int[(width + 1) * (height + 1)];
+        //prefix sums along every row, then down every column
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int row = (y + 1) * (width + 1);
+            for (int x = 0; x < width; x++)
+                wallSums[row + x + 1] = wallSums[row + x] + (walls[y * width + x] ? 1 : 0);
+        });
+        IntStream.rangeClosed(1, width).parallel().forEach(x -> {
+            for (int y = 1; y <= height; y++)
+                wallSums[y * (width + 1) + x] += wallSums[(y - 1) * (width + 1) + x];
+        });
+
+        //the manhattan distance transform is separable: first along the rows, then along the columns
+        int far = Integer.MAX_VALUE / 2;
+        wallDistance = new int[width * height];
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int row = y * width;
+            int d = far;
+            for (int x = 0; x < width; x++) {
+                d = walls[row + x] ? 0 : Math.min(far, d + 1);
+                wallDistance[row + x] = d;
+            }
+            d = far;
+            for (int x = width - 1; x >= 0; x--) {
+                d = walls[row + x] ? 0 : Math.min(far, d + 1);
+                wallDistance[row + x] = Math.min(wallDistance[row + x], d);
+            }
+        });
+        IntStream.range(0, width).parallel().forEach(x -> {
+            for (int y = 1; y < height; y++)
+                wallDistance[y * width + x] = Math.min(wallDistance[y * width + x], wallDistance[(y - 1) * width + x] + 1);
+            for (int y = height - 2; y >= 0; y--)
+                wallDistance[y * width + x] = Math.min(wallDistance[y * width + x], wallDistance[(y + 1) * width + x] + 1);
+        });
+
+        components = new int[width * height];
+        numComponents = label(walls);
+    }
+
+    //union-find over the free tiles, then numbers the roots in row order
+    private int label(boolean[] walls) {
+        int[] parent = new int[walls.length];
+        Arrays.setAll(parent, i -> i);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                if (walls[cell])
+                    continue;
+                if (x > 0 && !walls[cell - 1])
+                    union(parent, cell, cell - 1);
+                if (y > 0 && !walls[cell - width])
+                    union(parent, cell, cell - width);
+            }
+        }
+
+        int count = 0;
+        for (int cell = 0; cell < walls.length; cell++) {
+            if (walls[cell])
+                continue;
+            int root = find(parent, cell);
+            if (components[root] == 0)
+                components[root] = ++count;
+            components[cell] = components[root];
+        }
+        return count;
+    }
+
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a), rootB = find(parent, b);
+        if (rootA != rootB)
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+    }
+
+    public boolean isWall(int x, int y) {
+        return countWalls(x, y, x, y) == 1;
+    }
+
+    /**
+     * Counts the walls in a rectangle of tiles, the parts of it outside the map have none
+     *
+     * @return number of walls with minX <= x <= maxX and minY <= y <= maxY
+     */
+    public int countWalls(int minX, int minY, int maxX, int maxY) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, width - 1);
+        maxY = Math.min(maxY, height - 1);
+        if (minX > maxX || minY > maxY)
+            return 0;
+        int w = width + 1;
+        return wallSums[(maxY + 1) * w + maxX + 1] - wallSums[minY * w + maxX + 1]
+                - wallSums[(maxY + 1) * w + minX] + wallSums[minY * w + minX];
+    }
+
+    /**
+     * @return number of free tiles of the map in the square of the given radius around (x, y), (x, y) itself excluded
+     */
+    public int countFreeNeighbours(int x, int y, int radius) {
+        int minX = Math.max(x - radius, 0), maxX = Math.min(x + radius, width - 1);
+        int minY = Math.max(y - radius, 0), maxY = Math.min(y + radius, height - 1);
+        int inMap = (maxX - minX + 1) * (maxY - minY + 1);
+        return inMap - countWalls(minX, minY, maxX, maxY) - (isWall(x, y) ? 0 : 1);
+    }
+
+    /**
+     * @return manhattan distance from the tile to the nearest wall, 0 for walls
+     */
+    public int getWallDistance(int x, int y) {
+        return wallDistance[y * width + x];
+    }
+
+    /**
+     * @return label of the region of free tiles the tile belongs to, from 1 to {@link #getNumComponents()}, 0 for walls
+     */
+    public int getComponent(int x, int y) {
+        return components[y * width + x];
+    }
+
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    /**
+     * @return whether a path of free tiles connects the two tiles
+     */
+    public boolean isConnected(int x1, int y1, int x2, int y2) {
+        int component = getComponent(x1, y1);
+        return component != 0 && component == getComponent(x2, y2);
+    }
+}
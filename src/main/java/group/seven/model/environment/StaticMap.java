@@ -0,0 +1,490 @@
+package group.seven.model.environment;
+
+import group.seven.enums.GameMode;
+import group.seven.enums.TileType;
+import group.seven.logic.geometric.Rectangle;
+import group.seven.logic.geometric.XY;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static group.seven.enums.Cardinal.NORTH;
+import static group.seven.enums.TileType.*;
+import static group.seven.utils.Methods.print;
+import static java.lang.Double.parseDouble;
+import static java.lang.Integer.parseInt;
+
+/**
+ * The static part of a map file: its properties, components, the type of every tile and the component on it.
+ * A map file is parsed only once, then every Scenario built from it shares this (immutable) layer,
+ * and only allocates its own tiles, agents and exploration state on top of it. See {@link ScenarioBuilder}.
+ * <p>
+ * Besides the text format, maps can be stored in a binary format (extension {@value #BINARY_EXTENSION}), see
+ * {@link #writeBinary(File)}. Its tile types are memory-mapped instead of read, so even very large maps load at once
+ * and only the parts of the map the agents get to are paged in.
+ */
+public final class StaticMap {
+    public static final String BINARY_EXTENSION = ".smap";
+    private static final int MAGIC = 0x534D4150; //"SMAP"
+    private static final int VERSION = 1;
+    private static final Map<String, StaticMap> CACHE = new ConcurrentHashMap<>();
+    private static final TileType[] TYPES = TileType.values();
+    //stored in the component table of the binary format instead of as properties
+    private static final Set<String> COMPONENT_PROPERTIES =
+            Set.of("targetArea", "spawnAreaIntruders", "spawnAreaGuards", "wall", "shaded", "teleport");
+
+    public final File mapFile;
+    public final int width, height;
+    //number of non-wall tiles
+    public final int numTiles;
+    private final long lastModified;
+    //holds the parsed properties and components, never handed out
+    private final Scenario template;
+    //the simple properties of the file, as (key, value) pairs, kept to write the binary format
+    private final List<String[]> properties = new ArrayList<>();
+    private Long seed = null;
+    //TileType ordinal of every cell, cell = y * (width + 1) + x like in TileMap. Read only, mapped for binary maps
+    private final ByteBuffer types;
+    //per chunk of CHUNK x CHUNK tiles, the indices in COMPONENTS of the components overlapping it, in increasing order.
+    //Null for chunks without components
+    private static final int SHIFT = 4;
+    private static final int CHUNK = 1 << SHIFT;
+    private final int chunksX;
+    private final int[][] chunkComponents;
+    //the portal each portal tile leads through, in the slot of its cell in portalCells. Only portal tiles are in it
+    private CellTable portalCells;
+    private Component[] portalComponents;
+    private volatile StaticFeatures features = null;
+
+    private StaticMap(File mapFile) throws IOException {
+        this.mapFile = mapFile;
+        lastModified = mapFile.lastModified();
+        template = new Scenario();
+        if (mapFile.getName().endsWith(BINARY_EXTENSION)) {
+            ByteBuffer file = readBinary(mapFile);
+            width = template.WIDTH;
+            height = template.HEIGHT;
+            numTiles = file.getInt();
+            int cells = (width + 1) * (height + 1);
+            types = file.slice(file.position(), cells).asReadOnlyBuffer();
+        } else {
+            parseFile(mapFile);
+            width = template.WIDTH;
+            height = template.HEIGHT;
+            applyComponents(template);
+            byte[] raster = fillTypes();
+            int totalGrids = 0;
+            for (byte type : raster)
+                if (type != WALL.ordinal())
+                    totalGrids++;
+            numTiles = totalGrids;
+            types = ByteBuffer.wrap(raster).asReadOnlyBuffer();
+
+            print("Total Grids: " + totalGrids);
+            print("Num Tiles: " + ((width + 1) * (height + 1)));
+        }
+        chunksX = (width + CHUNK) >> SHIFT;
+        chunkComponents = indexComponents();
+        indexPortals();
+    }
+
+    /**
+     * Returns the static layer of the given map file, parsing the file only the first time
+     * (or again if it was modified since).
+     *
+     * @param mapFile map file to read, in the text or the binary format
+     * @return the shared static layer of the map
+     */
+    public static StaticMap of(File mapFile) {
+        String key = mapFile.getAbsolutePath();
+        StaticMap map = CACHE.get(key);
+        if (map == null || map.lastModified != mapFile.lastModified()) {
+            try {
+                map = new StaticMap(mapFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not read map " + mapFile, e);
+            }
+            CACHE.put(key, map);
+        }
+        return map;
+    }
+
+    public TileType getType(int x, int y) {
+        return TYPES[types.get(cell(x, y))];
+    }
+
+    /**
+     * The component on a tile is the one that gave the tile its type, except on portal tiles,
+     * where it is the portal the tile leads through.
+     * Every Scenario built from this map shares the same Component objects, in its COMPONENTS list.
+     *
+     * @return the component on the tile at (x, y), or null if there is none
+     */
+    public Component componentAt(int x, int y) {
+        Objects.checkIndex(x, width + 1);
+        Objects.checkIndex(y, height + 1);
+        if (getType(x, y) == PORTAL) {
+            int slot = portalCells.find(cell(x, y));
+            if (slot >= 0)
+                return portalComponents[slot];
+        }
+        //the last component that filled the tile is on top
+        int[] candidates = chunkComponents[(y >> SHIFT) * chunksX + (x >> SHIFT)];
+        if (candidates != null) {
+            for (int i = candidates.length - 1; i >= 0; i--) {
+                Rectangle area = template.COMPONENTS.get(candidates[i]).area();
+                if (x >= area.getX() && x < area.getMaxIntX() && y >= area.getY() && y < area.getMaxIntY())
+                    return template.COMPONENTS.get(candidates[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the tile the portal at (x, y) leads to, or null if there is none
+     */
+    public XY getPortalExit(int x, int y) {
+        Component component = componentAt(x, y);
+        return component != null && component.isPortal() && getType(x, y) == PORTAL ? component.exit() : null;
+    }
+
+    /**
+     * @return the feature rasters of the map, computed the first time they are asked for
+     */
+    public StaticFeatures getFeatures() {
+        StaticFeatures computed = features;
+        if (computed == null) {
+            synchronized (this) {
+                if (features == null)
+                    features = new StaticFeatures(width + 1, height + 1, types());
+                computed = features;
+            }
+        }
+        return computed;
+    }
+
+    /**
+     * The type raster is shared by every TileMap built from this map, which copy it before changing a type.
+     */
+    ByteBuffer types() {
+        return types.duplicate();
+    }
+
+    private int cell(int x, int y) {
+        return y * (width + 1) + x;
+    }
+
+    /**
+     * Copies the properties and components of the map into a newly created Scenario.
+     * Components are immutable, so they are shared instead of copied.
+     */
+    void applyTo(Scenario scenario) {
+        scenario.GUARD_GAME_MODE = template.GUARD_GAME_MODE;
+        scenario.INTRUDER_GAME_MODE = template.INTRUDER_GAME_MODE;
+        scenario.NAME = template.NAME;
+        scenario.WIDTH = template.WIDTH;
+        scenario.HEIGHT = template.HEIGHT;
+        scenario.NUM_GUARDS = template.NUM_GUARDS;
+        scenario.NUM_INTRUDERS = template.NUM_INTRUDERS;
+        scenario.NUM_AGENTS = template.NUM_AGENTS;
+        scenario.INTRUDER_BASE_SPEED = template.INTRUDER_BASE_SPEED;
+        scenario.INTRUDER_SPRINT_SPEED = template.INTRUDER_SPRINT_SPEED;
+        scenario.GUARD_BASE_SPEED = template.GUARD_BASE_SPEED;
+        scenario.GUARD_SPRINT_SPEED = template.GUARD_SPRINT_SPEED;
+        scenario.VIEW_DISTANCE = template.VIEW_DISTANCE;
+        scenario.NUM_MARKERS = template.NUM_MARKERS;
+        scenario.SMELL_DISTANCE = template.SMELL_DISTANCE;
+        scenario.TILE_SIZE = template.TILE_SIZE;
+        scenario.SCALING = template.SCALING;
+        scenario.TIME_STEP = template.TIME_STEP;
+        scenario.targetArea = template.targetArea;
+        scenario.intruderSpawnArea = template.intruderSpawnArea;
+        scenario.guardSpawnArea = template.guardSpawnArea;
+        scenario.walls.addAll(template.walls);
+        scenario.shadedAreas.addAll(template.shadedAreas);
+        scenario.portals.addAll(template.portals);
+        applyComponents(scenario);
+        if (seed != null)
+            scenario.setSeed(seed);
+    }
+
+    private static void applyComponents(Scenario scenario) {
+        scenario.COMPONENTS.addAll(List.of(scenario.targetArea, scenario.intruderSpawnArea, scenario.guardSpawnArea));
+        scenario.COMPONENTS.addAll(scenario.walls);
+        scenario.COMPONENTS.addAll(scenario.shadedAreas);
+        scenario.COMPONENTS.addAll(scenario.portals);
+    }
+
+    //the type of every tile, from the components in the order they were compiled, later ones on top
+    private byte[] fillTypes() {
+        byte[] raster = new byte[(width + 1) * (height + 1)];
+        Arrays.fill(raster, (byte) EMPTY.ordinal());
+        template.COMPONENTS.forEach(c -> {
+            for (int x = c.area().getX(); x < c.area().getMaxIntX(); x++)
+                for (int y = c.area().getY(); y < c.area().getMaxIntY(); y++)
+                    raster[cell(x, y)] = (byte) c.type().ordinal();
+        });
+        template.portals.forEach(p -> raster[cell(p.exit().x(), p.exit().y())] = (byte) EXIT_PORTAL.ordinal());
+        return raster;
+    }
+
+    //the components in the order they were compiled, later ones on top like in fillTypes
+    private int[][] indexComponents() {
+        List<Component> components = template.COMPONENTS;
+        int[][] chunks = new int[chunksX * ((height + CHUNK) >> SHIFT)][];
+        int[] sizes = new int[chunks.length];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < components.size(); i++) {
+                Rectangle area = components.get(i).area();
+                int minX = Math.max(0, area.getX()), maxX = Math.min(width + 1, area.getMaxIntX());
+                int minY = Math.max(0, area.getY()), maxY = Math.min(height + 1, area.getMaxIntY());
+                if (minX >= maxX || minY >= maxY)
+                    continue;
+                for (int cy = minY >> SHIFT; cy <= (maxY - 1) >> SHIFT; cy++) {
+                    for (int cx = minX >> SHIFT; cx <= (maxX - 1) >> SHIFT; cx++) {
+                        int chunk = cy * chunksX + cx;
+                        if (pass == 0)
+                            sizes[chunk]++;
+                        else
+                            chunks[chunk][sizes[chunk]++] = i;
+                    }
+                }
+            }
+            //first pass counts, second fills
+            if (pass == 0) {
+                for (int chunk = 0; chunk < chunks.length; chunk++)
+                    if (sizes[chunk] > 0)
+                        chunks[chunk] = new int[sizes[chunk]];
+                Arrays.fill(sizes, 0);
+            }
+        }
+        return chunks;
+    }
+
+    //a portal tile leads through the first portal whose area contains it, as CollisionHandler.getComponentFromList finds
+    private void indexPortals() {
+        //first pass counts the portal tiles, overlapping portals counting a tile more than once, to size the table
+        for (int pass = 0, count = 0; pass < 2; pass++) {
+            if (pass == 1) {
+                //at most half full
+                int capacity = Integer.highestOneBit(Math.max(4, 2 * count - 1)) << 1;
+                portalCells = new CellTable(capacity);
+                portalComponents = new Component[capacity];
+            }
+            for (Component portal : template.COMPONENTS) {
+                if (portal.type() != PORTAL)
+                    continue;
+                Rectangle area = portal.area();
+                for (int x = Math.max(0, area.getX()); x <= Math.min(width, (int) area.getMaxX()); x++) {
+                    for (int y = Math.max(0, area.getY()); y <= Math.min(height, (int) area.getMaxY()); y++) {
+                        if (!area.contains(x, y) || getType(x, y) != PORTAL)
+                            continue;
+                        if (pass == 0)
+                            count++;
+                        else if (portalCells.find(cell(x, y)) < 0)
+                            portalComponents[portalCells.add(cell(x, y))] = portal;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the map in the binary format: a header with the properties, the table of components,
+     * then the type of every tile, one byte each.
+     *
+     * @param file file to write, should end with {@value #BINARY_EXTENSION}
+     * @throws IOException if the file cannot be written
+     */
+    public void writeBinary(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(seed != null);
+            out.writeLong(seed == null ? 0 : seed);
+            out.writeInt(properties.size());
+            for (String[] property : properties) {
+                writeString(out, property[0]);
+                writeString(out, property[1]);
+            }
+
+            List<Component> components = new ArrayList<>(template.COMPONENTS);
+            out.writeInt(components.size());
+            for (Component c : components) {
+                out.writeByte(c.type().ordinal());
+                out.writeInt(c.area().getX());
+                out.writeInt(c.area().getY());
+                out.writeInt(c.area().getIntWidth());
+                out.writeInt(c.area().getIntHeight());
+                out.writeInt(c.exit() == null ? -1 : c.exit().x());
+                out.writeInt(c.exit() == null ? -1 : c.exit().y());
+            }
+
+            out.writeInt(numTiles);
+            ByteBuffer raster = types();
+            byte[] row = new byte[width + 1];
+            for (int y = 0; y <= height; y++) {
+                raster.get(cell(0, y), row);
+                out.write(row);
+            }
+        }
+    }
+
+    /**
+     * Converts map files from the text to the binary format, next to the originals
+     *
+     * @param args paths of the text map files
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        for (String path : args) {
+            File text = new File(path);
+            File binary = new File(text.getParentFile(), text.getName().replaceFirst("\\.txt$", "") + BINARY_EXTENSION);
+            new StaticMap(text).writeBinary(binary);
+            print("Converted " + text + " to " + binary, true);
+        }
+    }
+
+    //reads everything up to the tile types into the template, returns the file positioned after them
+    private ByteBuffer readBinary(File map) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(map.toPath(), StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.getInt() != MAGIC)
+            throw new IOException(map + " is not a binary map file");
+        int version = in.getInt();
+        if (version != VERSION)
+            throw new IOException("unsupported binary map version " + version);
+
+        boolean hasSeed = in.get() != 0;
+        long fileSeed = in.getLong();
+        if (hasSeed)
+            seed = fileSeed;
+        for (int i = in.getInt(); i > 0; i--)
+            parseValue(readString(in), readString(in));
+
+        for (int i = in.getInt(); i > 0; i--) {
+            TileType type = TYPES[in.get()];
+            Rectangle area = new Rectangle(in.getInt(), in.getInt(), in.getInt(), in.getInt());
+            int exitX = in.getInt(), exitY = in.getInt();
+            switch (type) {
+                case TARGET -> template.targetArea = new Component(area, TARGET, null, null);
+                case INTRUDER_SPAWN -> template.intruderSpawnArea = new Component(area, INTRUDER_SPAWN, null, null);
+                case GUARD_SPAWN -> template.guardSpawnArea = new Component(area, GUARD_SPAWN, null, null);
+                case WALL -> template.addWall(area);
+                case SHADED -> template.addShaded(area);
+                case PORTAL -> template.addPortals(new Component(area, PORTAL, new XY(exitX, exitY), NORTH));
+                default -> throw new IOException("unexpected component " + type + " in " + map);
+            }
+        }
+        applyComponents(template);
+        return in;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void parseFile(File map) throws IOException {
+        try (Scanner sc = new Scanner(map)) {
+            while (sc.hasNextLine()) {
+                String[] property = sc.nextLine()                                //get next line in file
+                        .replaceAll("([\\s]*(//)+)+(.)*", "")   //remove any comments in file line
+                        .split(" = ");      //split line into its (key, value) pair as a String array
+
+                if (property[0].equals("seed"))
+                    seed = Long.parseLong(property[1]);
+                else
+                    parseValue(property[0], property[1]); // key, value
+            }
+        }
+    }
+
+    private void parseValue(String property, String value) {
+        switch (property) {
+            //simple properties:
+            case "name" -> template.NAME = value;
+            case "gameMode" -> {
+                if (parseInt(value) > 2) template.INTRUDER_GAME_MODE = GameMode.values()[parseInt(value)];
+                else template.GUARD_GAME_MODE = GameMode.values()[parseInt(value)];
+            }
+            case "height" -> template.HEIGHT = parseInt(value);    // the height of the map
+            case "width" -> template.WIDTH = parseInt(value);    // the width of the map
+            case "numGuards" -> template.NUM_GUARDS = parseInt(value);    // the amount of guards
+            case "numIntruders" -> template.NUM_INTRUDERS = parseInt(value);    // the amount of intruders
+            case "baseSpeedIntruder" -> template.INTRUDER_BASE_SPEED = parseDouble(value); // the walking speed of intruders
+            case "sprintSpeedIntruder" -> template.INTRUDER_SPRINT_SPEED = parseDouble(value); // the sprinting speed of the intruders
+            case "baseSpeedGuard" -> template.GUARD_BASE_SPEED = parseDouble(value); // the base speed of the guard.
+            case "sprintSpeedGuard" -> template.GUARD_SPRINT_SPEED = parseDouble(value); // the sprinting speed of the intruders
+            case "distanceViewing" -> template.VIEW_DISTANCE = parseInt(value);
+            case "numberMarkers" -> template.NUM_MARKERS = parseInt(value);
+            case "smellingDistance" -> template.SMELL_DISTANCE = parseInt(value);
+
+            // not sure if these should be included
+            case "tileSize" -> template.TILE_SIZE = parseInt(value);
+            case "scaling" -> template.SCALING = parseDouble(value);
+            case "timeStep" -> template.TIME_STEP = parseDouble(value);
+
+            //regions:
+            case "targetArea" -> template.targetArea = new Component(parsePoints(value), TARGET, null, null);
+            case "spawnAreaIntruders" -> template.intruderSpawnArea = new Component(parsePoints(value), INTRUDER_SPAWN, null, null);
+            case "spawnAreaGuards" -> template.guardSpawnArea = new Component(parsePoints(value), GUARD_SPAWN, null, null);
+
+            case "wall" -> template.addWall(parsePoints(value));
+            case "shaded" -> template.addShaded(parsePoints(value));
+            case "texture" -> print("Texture not implemented yet");
+
+            case "teleport" -> {
+                String[] coords = value.split(" ");
+                XY target = new XY(parseInt(coords[4]), parseInt(coords[5]));
+                template.addPortals(new Component(parsePoints(value), PORTAL, target, NORTH));
+            }
+
+            default -> print("Unrecognized Property: " + property);
+        }
+        if (!COMPONENT_PROPERTIES.contains(property))
+            properties.add(new String[]{property, value});
+
+        template.NUM_AGENTS = template.NUM_GUARDS + template.NUM_INTRUDERS;
+    }
+
+    /**
+     * Converts the string of four corners that define area
+     * into our Rectangle class which returns ints instead of doubles
+     *
+     * @param value String of corner points ([0] = x1, [1] = y1, [2] = x2, [3] = y2)
+     * @return Rectangle enclosing the area
+     */
+    private static Rectangle parsePoints(String value) {
+        int[] points = Arrays.stream(value.split(" "))
+                .mapToInt(p -> (int) Double.parseDouble(p)).toArray();
+        int width = Math.abs(points[2] - points[0]);    //not sure if Math.abs is necessary
+        int height = Math.abs(points[3] - points[1]);
+        return new Rectangle(points[0], points[1], width, height);
+    }
+}
@@ -5,62 +5,21 @@ import group.seven.enums.TileType;
 import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import static group.seven.enums.MarkerType.UNEXPLORED;
-import static group.seven.enums.PheromoneType.SMELL;
-import static group.seven.enums.TileType.*;
-
+/**
+ * A view on one cell of a {@link TileMap}. The state of the tile lives in the arrays of the map,
+ * which creates a single Tile per cell the first time it is asked for, so tiles can still be compared by reference.
+ */
 public class Tile {
-    TileType type;
-    XY xy; //or Point2D, or int x, y
-    boolean exploredByGuard = false;
-    boolean exploredByIntruder = false;
-    // Lists keep track of which agent has seen the tile
-    List<Boolean> seen;
-    //Graph
-    public Adjacent<Tile> adjacent;
-    public Pheromone pheromone;
-    private MarkerType exploreType = UNEXPLORED;
-    //    public List<Marker> guard_marker;
-    protected Scenario scenario;
-
-    public Tile(Scenario scenario) {
-        xy = new XY(0, 0);
-        pheromone = new Pheromone(xy.x(), xy.y(), SMELL, 0);
-        this.scenario = scenario;
-        scenario.TILE_MAP.pheromones.add(pheromone);
-        type = EMPTY;
-
-        seen = new ArrayList<>(scenario.NUM_AGENTS);
-        for (int i = 0; i < scenario.NUM_AGENTS; i++)
-            seen.add(false);
-//        guard_marker = new ArrayList<>();
-//        for (int i = 0; i < NUM_GUARDS; i++) {
-//            guard_marker.add(new Marker(xy.x(),xy.y(),MarkerType.UNEXPLORED,i,Cardinal.NORTH));
-//        }
-//        Scenario.TILE_MAP.markers.addAll(guard_marker);
-    }
-
-    public List<Boolean> getSeen() {
-        return seen;
-    }
-
-    public Tile(int x, int y, Scenario s) {
-        this(s);
+    private final TileMap tileMap;
+    private final XY xy;
+    //Graph, linked the first time it is needed. Agents may ask for it from several threads: they all link the same
+    //tiles, and the volatile flag makes sure whoever sees it set also sees the neighbours
+    private Adjacent<Tile> adjacent;
+    private volatile boolean adjacentLinked = false;
+
+    Tile(TileMap tileMap, int x, int y) {
+        this.tileMap = tileMap;
         xy = new XY(x, y);
-        pheromone = new Pheromone(x, y, SMELL, 0);
-//        guard_marker.clear();
-//        for (int i = 0; i < NUM_GUARDS; i++) {
-//            guard_marker.add(new Marker(xy.x(),xy.y(),MarkerType.UNEXPLORED,i,Cardinal.NORTH));
-//        }
-    }
-
-    public Tile(TileType type, int x, int y, Scenario s) {
-        this(x, y, s);
-        this.type = type;
-        pheromone = new Pheromone(x, y, SMELL, 0);
     }
 
     //Actionable
@@ -77,63 +36,60 @@ public class Tile {
         return xy.y();
     }
 
-    public TileType getType() {
-        return type;
+    /**
+     * @return cell id of the tile on its map, see {@link group.seven.logic.geometric.Cells}
+     */
+    public int getCellId() {
+        return tileMap.cellId(xy.x(), xy.y());
     }
 
-    public void setType(TileType type) {
-        this.type = type;
+    public TileType getType() {
+        return tileMap.getType(xy.x(), xy.y());
     }
 
-    //public void setAdjacent(Tile[] adjacent) { this.adjacent = adjacent;}
-    public void setAdjacent(Tile north, Tile east, Tile south, Tile west, Tile target) {
-        this.adjacent = new Adjacent<>(north, east, south, west, target);
+    public void setType(TileType type) {
+        tileMap.setType(xy.x(), xy.y(), type);
     }
 
     public boolean getExploredGuard() {
-        return exploredByGuard;
+        return tileMap.isExploredByGuard(xy.x(), xy.y());
     }
 
     public boolean getExploredIntruder() {
-        return exploredByIntruder;
+        return tileMap.isExploredByIntruder(xy.x(), xy.y());
     }
 
-    public Adjacent<Tile> getAdjacent() {
-        return this.adjacent;
+    public boolean isSeenBy(Agent agent) {
+        return tileMap.isSeenBy(xy.x(), xy.y(), agent.getID());
+    }
+
+    public double getPheromoneStrength() {
+        return tileMap.getPheromoneStrength(xy.x(), xy.y());
     }
 
+    public Adjacent<Tile> getAdjacent() {
+        if (!adjacentLinked) {
+            adjacent = tileMap.createAdjacent(xy.x(), xy.y());
+            adjacentLinked = true;
+        }
+        return adjacent;
+    }
 
     /**
-     * //TODO: check if theres a fancier way to store this information or more efficient data structure
-     * Sets a tile as explored and adds to the list, either of guards or intruders, the ID of the agent that saw it
+     * Sets a tile as explored and marks it as seen by the agent, see {@link TileMap#setExplored(int, int, Agent)}
      *
-     * @param agent
+     * @param agent agent that saw the tile
      */
     public void setExplored(Agent agent) {
-        if (agent.getType() == GUARD) {
-            if (!exploredByGuard) {
-                scenario.TILE_MAP.GUARD_EXPLORATION++; //prolly need to test this
-                agent.updateNumExplored(); //maybe this belongs outside the if?
-            }
-
-            exploredByGuard = true;         //exploredGuardProperty.set(true);
-        } else if (agent.getType() == INTRUDER) {
-            if (!exploredByIntruder) {
-                scenario.TILE_MAP.INTRUDER_EXPLORATION++; //and this
-                agent.updateNumExplored();
-            }
-            exploredByIntruder = true;      //exploredIntruderProperty.set(true);
-        }
-        // Because the int is static it just increases and guards and intruders don't share it, therefore we just save it
-        seen.set(agent.getID(), true);
+        tileMap.setExplored(xy.x(), xy.y(), agent);
     }
 
     public MarkerType getExploreType() {
-        return exploreType;
+        return tileMap.getExploreType(xy.x(), xy.y());
     }
 
     public void setExploreType(MarkerType exploreType) {
-        this.exploreType = exploreType;
+        tileMap.setExploreType(xy.x(), xy.y(), exploreType);
     }
 
     @Override
@@ -1,132 +1,660 @@
 package group.seven.model.environment;
 
+import group.seven.enums.Cardinal;
+import group.seven.enums.MarkerType;
 import group.seven.enums.TileType;
+import group.seven.logic.geometric.Cells;
 import group.seven.logic.geometric.XY;
 import group.seven.model.agents.Agent;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import static group.seven.enums.MarkerType.UNEXPLORED;
 import static group.seven.enums.TileType.GUARD;
+import static group.seven.enums.TileType.INTRUDER;
+import static group.seven.enums.TileType.PORTAL;
+import static group.seven.enums.TileType.WALL;
 import static group.seven.utils.Methods.print;
 
 public class TileMap {
-    //used for coverage calculation
+    private static final TileType[] TYPES = TileType.values();
+    private static final MarkerType[] MARKER_TYPES = MarkerType.values();
+    private static final byte WALL_ORDINAL = (byte) WALL.ordinal();
+
+    //used for coverage calculation. NUM_TILES is the number of non-wall tiles, set when the map is built
     public double NUM_TILES;
     public double INTRUDER_EXPLORATION;
     public double GUARD_EXPLORATION;
-    //TileMap
-    public Tile[][] map;
     public Set<XY> guardPositions; //observable?
     public Set<XY> intruderPositions; //observable?
     public Agent[] agents;
+    //occupancy: ID of an agent standing on each occupied cell (cell = y * (WIDTH + 1) + x), -1 if the cell is empty.
+    //Agents sharing a cell are chained through nextOnCell, cellOf is the cell of each agent ID
+    private static final int EMPTY = OccupancyTable.EMPTY, REMOVED = -2;
+    private final int width, height;
+    private final OccupancyTable occupancy;
+    private final int[] nextOnCell;
+    private final int[] cellOf;
+
+    //the tiles themselves. The types are shared with the StaticMap until one of them changes
+    private final StaticMap staticMap;
+    private ByteBuffer types;
+    private boolean typesShared;
+    //the rest is kept in blocks of BLOCK x BLOCK cells, allocated when a cell of the block first leaves its initial state
+    private static final int SHIFT = 6;
+    private static final int BLOCK = 1 << SHIFT;
+    private final int blocksX;
+    //per block a word per row with a bit per column, null until a tile of the block is explored
+    private final long[][] exploredByGuard;
+    private final long[][] exploredByIntruder;
+    //per block a byte per cell, null while every tile of the block is UNEXPLORED
+    private final byte[][] exploreTypes;
+    //which agents have seen each cell
+    private final SeenCells seen;
+    //Tile objects are only views on the state above, created the first time a cell is asked for. Agents ask for them
+    //while deciding their moves in parallel, so blocks and tiles are published with compare-and-set: one Tile per cell
+    private final AtomicReferenceArray<AtomicReferenceArray<Tile>> tiles;
 
     //marker/pheromone stuff. Should this belong here?
-    public ArrayList<Marker> markers;
-    public ArrayList<Pheromone> pheromones;
+    private final MarkerStore markers;
+    private final PheromoneField pheromones = new PheromoneField();
     private final int spreadDistance = 50;
 
 
-    public TileMap(Scenario s) {
-        map = new Tile[s.WIDTH + 1][s.HEIGHT + 1];
+    public TileMap(Scenario s, StaticMap staticMap) {
         agents = new Agent[s.NUM_AGENTS];
         //guardPositions = new ArrayList<>(NUM_GUARDS);
         //intruderPositions = new ArrayList<>(NUM_INTRUDERS);
         guardPositions = new HashSet<>(s.NUM_GUARDS);
         intruderPositions = new HashSet<>(s.NUM_INTRUDERS);
-        markers = new ArrayList<>();
-        pheromones = new ArrayList<>();
 
-        //NUM_TILES = Scenario.WIDTH * Scenario.HEIGHT; // +1 (?)
+        width = s.WIDTH + 1;
+        height = s.HEIGHT + 1;
+        occupancy = new OccupancyTable(s.NUM_AGENTS);
+        nextOnCell = new int[s.NUM_AGENTS];
+        cellOf = new int[s.NUM_AGENTS];
+        Arrays.fill(nextOnCell, EMPTY);
+        Arrays.fill(cellOf, EMPTY);
+
+        int cells = width * height;
+        this.staticMap = staticMap;
+        types = staticMap.types();
+        typesShared = true;
+        blocksX = (width + BLOCK - 1) >> SHIFT;
+        int blocks = blocksX * ((height + BLOCK - 1) >> SHIFT);
+        exploredByGuard = new long[blocks][];
+        exploredByIntruder = new long[blocks][];
+        exploreTypes = new byte[blocks][];
+        seen = new SeenCells(cells, s.NUM_AGENTS);
+        tiles = new AtomicReferenceArray<>(blocks);
+        markers = new MarkerStore(width, height);
+        NUM_TILES = staticMap.numTiles;
+    }
+
+    /**
+     * @return percentage of the non-wall tiles that have been seen by a guard
+     */
+    public double getGuardCoverage() {
+        return GUARD_EXPLORATION / NUM_TILES * 100;
+    }
+
+    /**
+     * @return percentage of the non-wall tiles that have been seen by an intruder
+     */
+    public double getIntruderCoverage() {
+        return INTRUDER_EXPLORATION / NUM_TILES * 100;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
     }
 
     //update
     public Tile getTile(int x, int y) {
-        if (x < 0 || y < 0 || x > map.length || y > map[0].length) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
             System.err.println("Out of bounds");
             return null; // should probably throw an exception instead of empty tile
         }
 
-        return map[x][y];
+        return tile(y * width + x);
+    }
+
+    /**
+     * @return the tile with the cell id, null if there is none. See {@link Cells}
+     */
+    public Tile getTile(int cell) {
+        return Cells.isInBounds(cell, width, height) ? tile(cell) : null;
+    }
+
+    private Tile tile(int cell) {
+        int x = Cells.x(cell, width), y = Cells.y(cell, width);
+        int b = block(x, y);
+        AtomicReferenceArray<Tile> block = tiles.get(b);
+        if (block == null) {
+            //whoever sets it first wins, the others use that block
+            AtomicReferenceArray<Tile> created = new AtomicReferenceArray<>(BLOCK * BLOCK);
+            block = tiles.compareAndExchange(b, null, created);
+            if (block == null)
+                block = created;
+        }
+        int i = offset(x, y);
+        Tile tile = block.get(i);
+        if (tile == null) {
+            Tile created = new Tile(this, x, y);
+            tile = block.compareAndExchange(i, null, created);
+            if (tile == null)
+                tile = created;
+        }
+        return tile;
+    }
+
+    /**
+     * @return cell id of the tile at (x, y), {@link Cells#NONE} if it is outside the map
+     */
+    public int cellId(int x, int y) {
+        return x < 0 || y < 0 || x >= width || y >= height ? Cells.NONE : Cells.id(x, y, width);
+    }
+
+    public int cellId(XY xy) {
+        return cellId(xy.x(), xy.y());
+    }
+
+    public int cellX(int cell) {
+        return Cells.x(cell, width);
+    }
+
+    public int cellY(int cell) {
+        return Cells.y(cell, width);
+    }
+
+    /**
+     * @return id of the cell one step from the given one in the direction, {@link Cells#NONE} if it leaves the map
+     */
+    public int step(int cell, Cardinal direction) {
+        return Cells.step(cell, direction, width, height);
     }
 
     public void dropPheromone(int x, int y) {
-        for (int i = x - spreadDistance / 2; i < x + spreadDistance / 2; i++) {
-            for (int j = y - spreadDistance / 2; j < y + spreadDistance / 2; j++) {
+        for (int i = Math.max(0, x - spreadDistance / 2); i < Math.min(width, x + spreadDistance / 2); i++) {
+            for (int j = Math.max(0, y - spreadDistance / 2); j < Math.min(height, y + spreadDistance / 2); j++) {
                 int dis = Math.abs(x - i + y - j);
                 double adjustedStrength = Pheromone.maxStrength - (Pheromone.maxStrength / spreadDistance) * dis;
 
-                try {
-                    map[i][j].pheromone.setStrength(Math.max(map[i][j].pheromone.getStrength(), adjustedStrength));
-                } catch (Exception e) {
-                    print(e.getMessage());
-                    print(e.getCause());
-                }
+                pheromones.raise(j * width + i, adjustedStrength);
             }
         }
         //TODO implement "bomb"
     }
 
-    protected void setTile(int x, int y, Tile tile) {
-        map[x][y] = tile;
-    }
-
-    public Tile[][] getMap() {
-        return map;
+    public double getPheromoneStrength(int x, int y) {
+        return pheromones.get(cell(x, y));
     }
 
     protected void setType(int x, int y, TileType type) {
-        map[x][y].type = type;
+        if (typesShared) {
+            ByteBuffer copy = ByteBuffer.allocate(types.capacity());
+            copy.put(0, types, 0, types.capacity());
+            types = copy;
+            typesShared = false;
+        }
+        types.put(cell(x, y), (byte) type.ordinal());
     }
 
     protected void setType(XY xy, TileType type) {
-        map[xy.x()][xy.y()].type = type;
+        setType(xy.x(), xy.y(), type);
     }
 
     public TileType getType(int x, int y) {
-        return map[x][y].type;
+        return TYPES[types.get(cell(x, y))];
     }
 
     public TileType getType(XY xy) {
-        return map[xy.x()][xy.y()].type;
+        return getType(xy.x(), xy.y());
+    }
+
+    public TileType getType(int cell) {
+        return TYPES[types.get(Objects.checkIndex(cell, width * height))];
+    }
+
+    /**
+     * @return the feature rasters of the map, shared with every map built from the same file unless a type changed
+     */
+    public StaticFeatures getStaticFeatures() {
+        return typesShared ? staticMap.getFeatures() : new StaticFeatures(width, height, types.duplicate());
+    }
+
+    /**
+     * @return the component on the tile at (x, y), or null if there is none. See {@link StaticMap#componentAt(int, int)}
+     */
+    public Component componentAt(int x, int y) {
+        return staticMap.componentAt(x, y);
+    }
+
+    /**
+     * @return the tile the portal at (x, y) leads to, or null if there is none
+     */
+    public XY getPortalExit(int x, int y) {
+        return staticMap.getPortalExit(x, y);
+    }
+
+    /**
+     * @return cell id of the tile the portal on the cell leads to, {@link Cells#NONE} if there is none
+     */
+    public int getPortalExitCell(int cell) {
+        XY exit = staticMap.getPortalExit(cellX(cell), cellY(cell));
+        return exit == null ? Cells.NONE : Cells.id(exit, width);
+    }
+
+    public boolean isExploredByGuard(int x, int y) {
+        return isSet(exploredByGuard, x, y);
+    }
+
+    public boolean isExploredByIntruder(int x, int y) {
+        return isSet(exploredByIntruder, x, y);
+    }
+
+    /**
+     * Sets a tile as explored by the team of the agent, and as seen by the agent itself.
+     * The exploration counters only count non-wall tiles, so together with NUM_TILES they give the coverage
+     *
+     * @param agent agent that saw the tile
+     */
+    public void setExplored(int x, int y, Agent agent) {
+        int cell = cell(x, y);
+        if (agent.getType() == GUARD) {
+            if (!setBit(exploredByGuard, x, y)) {
+                if (types.get(cell) != WALL_ORDINAL)
+                    GUARD_EXPLORATION++;
+                agent.updateNumExplored();
+            }
+        } else if (agent.getType() == INTRUDER) {
+            if (!setBit(exploredByIntruder, x, y)) {
+                if (types.get(cell) != WALL_ORDINAL)
+                    INTRUDER_EXPLORATION++;
+                agent.updateNumExplored();
+            }
+        }
+        seen.mark(cell, agent.getID());
+    }
+
+    /**
+     * @return whether the agent with the given ID has ever seen the tile
+     */
+    public boolean isSeenBy(int x, int y, int id) {
+        return seen.isSeen(cell(x, y), id);
+    }
+
+    /**
+     * @return the IDs of the agents that have seen the tile
+     */
+    public int[] whoHasSeen(int x, int y) {
+        return seen.seenBy(cell(x, y));
+    }
+
+    /**
+     * @return number of tiles (walls included) seen by at least one agent of the team
+     */
+    public int countSeenByTeam(TileType team) {
+        int[] ids = new int[agents.length];
+        int size = 0;
+        for (Agent agent : agents)
+            if (agent != null && agent.getType() == team)
+                ids[size++] = agent.getID();
+        return seen.countUnion(Arrays.copyOf(ids, size));
+    }
+
+    public SeenCells getSeenCells() {
+        return seen;
+    }
+
+    public MarkerType getExploreType(int x, int y) {
+        return MARKER_TYPES[exploreType(x, y)];
+    }
+
+    public void setExploreType(int x, int y, MarkerType type) {
+        setExploreType(x, y, (byte) type.ordinal());
+    }
+
+    private byte exploreType(int x, int y) {
+        byte[] block = exploreTypes[block(x, y)];
+        return block == null ? (byte) UNEXPLORED.ordinal() : block[offset(x, y)];
+    }
+
+    private void setExploreType(int x, int y, byte type) {
+        int b = block(x, y);
+        if (exploreTypes[b] == null) {
+            if (type == UNEXPLORED.ordinal())
+                return;
+            exploreTypes[b] = new byte[BLOCK * BLOCK];
+            Arrays.fill(exploreTypes[b], (byte) UNEXPLORED.ordinal());
+        }
+        exploreTypes[b][offset(x, y)] = type;
+    }
+
+    /**
+     * The neighbours of a tile, as linked when the map is built. Tiles on the last row or column have none.
+     *
+     * @return the neighbours of the tile, or null if it has none
+     */
+    Adjacent<Tile> createAdjacent(int x, int y) {
+        if (x >= width - 1 || y >= height - 1)
+            return null;
+
+        Tile NORTH = null, EAST = null, SOUTH = null, WEST = null, TARGET = null;
+        if (y > 0) {
+            NORTH = getTile(x, y - 1);
+        }
+
+        EAST = getTile(x + 1, y);
+
+        if (x < height - 1) {
+            SOUTH = getTile(x, y + 1);
+        }
+
+        if (x > 0) {
+            WEST = getTile(x - 1, y);
+        }
+
+        XY exit = getPortalExit(x, y);
+        if (exit != null && getType(x, y) == PORTAL) {
+            TARGET = getTile(exit.x(), exit.y());
+        }
+        return new Adjacent<>(NORTH, EAST, SOUTH, WEST, TARGET);
+    }
+
+    private int cell(int x, int y) {
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        return y * width + x;
+    }
+
+    private int block(int x, int y) {
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        return (y >> SHIFT) * blocksX + (x >> SHIFT);
+    }
+
+    //index of the cell within its block
+    private static int offset(int x, int y) {
+        return (y & BLOCK - 1) << SHIFT | (x & BLOCK - 1);
+    }
+
+    private boolean isSet(long[][] bits, int x, int y) {
+        long[] rows = bits[block(x, y)];
+        return rows != null && (rows[y & BLOCK - 1] & 1L << x) != 0;
+    }
+
+    //sets the bit of the cell, returns whether it was already set
+    private boolean setBit(long[][] bits, int x, int y) {
+        int b = block(x, y);
+        if (bits[b] == null)
+            bits[b] = new long[BLOCK];
+        long mask = 1L << x;
+        boolean wasSet = (bits[b][y & BLOCK - 1] & mask) != 0;
+        bits[b][y & BLOCK - 1] |= mask;
+        return wasSet;
     }
 
     //tODO
     public void addAgent(Agent agent) {
         agents[agent.getID()] = agent;
+        XY position = agent.getXY();
+        moveAgent(agent, position.x(), position.y());
 
         if (agent.getType() == GUARD)
-            guardPositions.add(agent.getXY());
-        else intruderPositions.add(agent.getXY());
+            guardPositions.add(position);
+        else intruderPositions.add(position);
+    }
+
+    /**
+     * Updates the occupancy grid after an agent changed position. Called by the agent itself,
+     * agents that are not (or no longer) on this map are ignored.
+     *
+     * @param agent the agent that moved
+     * @param x     new global x-coordinate
+     * @param y     new global y-coordinate
+     */
+    public void moveAgent(Agent agent, int x, int y) {
+        int id = agent.getID();
+        if (id < 0 || id >= agents.length || agents[id] != agent || cellOf[id] == REMOVED)
+            return;
+
+        unlink(id);
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            int cell = y * width + x;
+            nextOnCell[id] = occupancy.get(cell);
+            occupancy.put(cell, id);
+            cellOf[id] = cell;
+        }
+    }
+
+    /**
+     * Takes an agent off the occupancy grid for good, e.g. a caught intruder
+     *
+     * @param agent agent to remove
+     */
+    public void removeAgent(Agent agent) {
+        int id = agent.getID();
+        if (id < 0 || id >= agents.length || agents[id] != agent)
+            return;
+
+        unlink(id);
+        cellOf[id] = REMOVED;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        if (cell < 0)
+            return;
+
+        int first = occupancy.get(cell);
+        if (first == id) {
+            occupancy.put(cell, nextOnCell[id]);
+        } else {
+            int previous = first;
+            while (nextOnCell[previous] != id)
+                previous = nextOnCell[previous];
+            nextOnCell[previous] = nextOnCell[id];
+        }
+        nextOnCell[id] = EMPTY;
+        cellOf[id] = EMPTY;
+    }
+
+    /**
+     * @return the ID of an agent on the cell, -1 if there is none or the cell is outside the map
+     */
+    public int getAgentIdAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return EMPTY;
+        return occupancy.get(y * width + x);
+    }
+
+    /**
+     * @return the ID of an agent on the cell with the cell id, -1 if there is none or the cell is outside the map
+     */
+    public int getAgentIdAt(int cell) {
+        return Cells.isInBounds(cell, width, height) ? occupancy.get(cell) : EMPTY;
+    }
+
+    /**
+     * @return an agent on the cell, null if there is none
+     */
+    public Agent getAgentAt(int x, int y) {
+        int id = getAgentIdAt(x, y);
+        return id == EMPTY ? null : agents[id];
+    }
+
+    public Agent getAgentAt(XY xy) {
+        return getAgentAt(xy.x(), xy.y());
+    }
+
+    public boolean isOccupied(int x, int y) {
+        return getAgentIdAt(x, y) != EMPTY;
+    }
+
+    /**
+     * Counts the agents of one type standing on a cell
+     *
+     * @param type GUARD or INTRUDER
+     * @return number of agents of that type on the cell
+     */
+    public int countAgents(int x, int y, TileType type) {
+        int count = 0;
+        for (int id = getAgentIdAt(x, y); id != EMPTY; id = nextOnCell[id])
+            if (agents[id].getType() == type)
+                count++;
+        return count;
+    }
+
+    /**
+     * @return all agents standing on the cell, empty if there are none
+     */
+    public List<Agent> getAgentsAt(int x, int y) {
+        int id = getAgentIdAt(x, y);
+        if (id == EMPTY)
+            return List.of();
+
+        List<Agent> found = new ArrayList<>(2);
+        for (; id != EMPTY; id = nextOnCell[id])
+            found.add(agents[id]);
+        return found;
+    }
+
+    public boolean hasAgent(int x, int y, TileType type) {
+        for (int id = getAgentIdAt(x, y); id != EMPTY; id = nextOnCell[id])
+            if (agents[id].getType() == type)
+                return true;
+        return false;
     }
 
     public void addMarker(Marker marker) {
         markers.add(marker);
     }
 
-    public ArrayList<Marker> getMarkers() {
+    public boolean removeMarker(Marker marker) {
+        return markers.remove(marker);
+    }
+
+    /**
+     * @return the markers on the map, bucketed by where they are
+     */
+    public MarkerStore getMarkers() {
         return markers;
     }
 
     public void resetMarkers() {
-        markers = new ArrayList<>();
+        markers.clear();
     }
 
-    public void addPheromone(Pheromone pheromone) {
-        pheromones.add(pheromone);
+    public PheromoneField getPheromoneField() {
+        return pheromones;
     }
 
-    public ArrayList<Pheromone> getPheromones() {
-        return pheromones;
+    /**
+     * Writes the state of the map that changes during a run: exploration, explore markers, pheromones and markers.
+     * The layout of the map is left out, it is restored into a map built from the same file
+     *
+     * @param out stream to write to
+     * @throws IOException if the stream does
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(GUARD_EXPLORATION);
+        out.writeDouble(INTRUDER_EXPLORATION);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                //one byte of flags per tile, the rest only if it differs from a tile nobody has seen yet
+                int cell = y * width + x;
+                boolean seenByAny = seen.isSeenByAny(cell);
+                int flags = (isExploredByGuard(x, y) ? 1 : 0)
+                        | (isExploredByIntruder(x, y) ? 2 : 0)
+                        | (exploreType(x, y) != UNEXPLORED.ordinal() ? 4 : 0)
+                        | (seenByAny ? 16 : 0);
+                out.writeByte(flags);
+                if ((flags & 4) != 0)
+                    out.writeByte(exploreType(x, y));
+                if (seenByAny)
+                    for (int i = 0; i < agents.length; i += 8) {
+                        int bits = 0;
+                        for (int j = 0; j < 8 && i + j < agents.length; j++)
+                            if (seen.isSeen(cell, i + j))
+                                bits |= 1 << j;
+                        out.writeByte(bits);
+                    }
+            }
+        }
+
+        pheromones.writeState(out);
+
+        out.writeInt(markers.size());
+        for (Marker marker : markers) {
+            out.writeInt(marker.getXCoordinate());
+            out.writeInt(marker.getYCoordinate());
+            out.writeByte(marker.getType().ordinal());
+            out.writeInt(marker.getId());
+            out.writeByte(marker.getCardinal() == null ? -1 : marker.getCardinal().ordinal());
+        }
     }
 
-    public void resetPheromones() {
-        pheromones = new ArrayList<>();
+    /**
+     * Reads back what {@link #writeState(DataOutput)} wrote, into a map built from the same file
+     *
+     * @param in stream to read from
+     * @throws IOException if the stream does
+     */
+    public void readState(DataInput in) throws IOException {
+        GUARD_EXPLORATION = in.readDouble();
+        INTRUDER_EXPLORATION = in.readDouble();
+        Arrays.fill(exploredByGuard, null);
+        Arrays.fill(exploredByIntruder, null);
+        Arrays.fill(exploreTypes, null);
+        seen.clear();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int cell = y * width + x;
+                int flags = in.readByte();
+                if ((flags & 1) != 0)
+                    setBit(exploredByGuard, x, y);
+                if ((flags & 2) != 0)
+                    setBit(exploredByIntruder, x, y);
+                if ((flags & 4) != 0)
+                    setExploreType(x, y, in.readByte());
+                if ((flags & 16) != 0)
+                    for (int i = 0; i < agents.length; i += 8) {
+                        int bits = in.readByte();
+                        for (int j = 0; j < 8 && i + j < agents.length; j++)
+                            if ((bits & 1 << j) != 0)
+                                seen.mark(cell, i + j);
+                    }
+            }
+        }
+
+        pheromones.readState(in);
+
+        markers.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            int x = in.readInt(), y = in.readInt();
+            MarkerType type = MarkerType.values()[in.readByte()];
+            int id = in.readInt();
+            int cardinal = in.readByte();
+            markers.add(new Marker(x, y, type, id, cardinal < 0 ? null : Cardinal.values()[cardinal]));
+        }
     }
 
     public Tile getTile(XY xy) {
-//        return map[xy.x()][xy.y()];
         return getTile(xy.x(), xy.y());
     }
 }
@@ -19,37 +19,47 @@ public class TileNode {
     //Or Point2D?
 
     TileType type;
-    Agent agent;
+    KnowledgeMap map;
     TileType agentType = null;
     List<Marker> markers;
     Adjacent<TileNode> adjacent;
-    Pheromone pheromone;
     Scenario scenario;
 
     public TileNode(Tile tile, Agent a) {
+        this(tile, a.getKnowledgeMap());
+    }
+
+    /**
+     * @param tile tile the node stands for
+     * @param map  the knowledge map the node belongs to, its neighbours are looked up in there
+     */
+    public TileNode(Tile tile, KnowledgeMap map) {
         x = tile.getX();
         y = tile.getY();
         xy = tile.getXY();
-        agent = a;
-        scenario = a.scenario;
-        pheromone = tile.pheromone;
-        for (Agent agent : scenario.TILE_MAP.agents) {
-            //if(agent!=null && agent.x==tile.getX()&& agent.y==tile.getY()){ //theirs
-            if (agent != null && agent.getXY().equals(xy)) {//mine
-                agentType = agent.agentType;
-                break;
-            }
-        }
+        this.map = map;
+        scenario = map.getScenario();
+        Agent onTile = scenario.TILE_MAP.getAgentAt(x, y);
+        if (onTile != null)
+            agentType = onTile.agentType;
+        type = tile.getType();
 
         updateAdjacent();
 
-        markers = new ArrayList<>();
-        for (Marker marker : scenario.TILE_MAP.markers) {
-            if (marker.getXY().equals(xy)) {
-                markers.add(marker);
-            }
-        }
-        type = tile.getType();
+        markers = new ArrayList<>(0);
+        scenario.TILE_MAP.getMarkers().collectAt(x, y, markers);
+    }
+
+    /**
+     * A node that only stands for a tile, for maps that do not store nodes. See {@link PackedKnowledgeMap}
+     */
+    TileNode(KnowledgeMap map, int x, int y) {
+        this.x = x;
+        this.y = y;
+        xy = new XY(x, y);
+        this.map = map;
+        scenario = map.getScenario();
+        markers = new ArrayList<>(0);
     }
 
     //updates one node
@@ -57,70 +67,53 @@ public class TileNode {
         TileType atype = agentType;
         agentType = null;
         markers.clear();
-//        for (Agent agentEntity : Scenario.TILE_MAP.agents) { //theirs
-//            if (agentEntity.x == x && agentEntity.y == y) {
-//                this.agentType = agentEntity.agentType;
-//                break;
-//            }
-//        }
-        for (Agent agent : scenario.TILE_MAP.agents) { //mine
-            if (agent != null && agent.getXY().equals(xy)) {
-                this.agentType = agent.agentType;
-                break;
-            }
-        }
+        Agent onTile = scenario.TILE_MAP.getAgentAt(x, y);
+        if (onTile != null)
+            this.agentType = onTile.agentType;
 
         if (atype != agentType) print("before: " + atype + " after update: " + agentType, false);
 
-        for (Marker marker : scenario.TILE_MAP.markers) {
-            if (marker.getXY().equals(xy)) {
-                markers.add(marker);
-            }
-        }
+        scenario.TILE_MAP.getMarkers().collectAt(x, y, markers);
 
 //        updateAdjacent();
 
     }
 
     /**
-     * This methods gets the adjacent positions and updates the internal map of the agent
+     * Links the node to the discovered nodes around it (in global coordinates). The knowledge map calls this again
+     * when one of them is discovered, see {@link KnowledgeMap#discover(Tile)}
      */
     public void updateAdjacent() {
-        //commented out is agent local
-//        TileNode north = agent.getMapPosition(agent.x, agent.y - 1);
-//        TileNode east = agent.getMapPosition(agent.x + 1, agent.y);
-//        TileNode south = agent.getMapPosition(agent.x, agent.y + 1);
-//        TileNode west = agent.getMapPosition(agent.x - 1, agent.y);
-
-        //now in agent global
-        XY agentGlobal = agent.getXY(); // calculate coordinate once
-        TileNode north = agent.getMapPosition(agentGlobal.x(), agentGlobal.y() - 1);
-        TileNode east = agent.getMapPosition(agentGlobal.x() + 1, agentGlobal.y());
-        TileNode south = agent.getMapPosition(agentGlobal.x(), agentGlobal.y() + 1);
-        TileNode west = agent.getMapPosition(agentGlobal.x() - 1, agentGlobal.y());
+        TileNode north = map.get(x, y - 1);
+        TileNode east = map.get(x + 1, y);
+        TileNode south = map.get(x, y + 1);
+        TileNode west = map.get(x - 1, y);
 
         TileNode target = null;
         if (type == PORTAL) {
-            int xTar = scenario.TILE_MAP.getTile(x, y).adjacent.targetLocation().getX();
-            int yTar = scenario.TILE_MAP.getTile(x, y).adjacent.targetLocation().getY();
-            target = agent.getMapPosition(xTar, yTar);
+            XY exit = scenario.TILE_MAP.getPortalExit(x, y);
+            if (exit != null)
+                target = map.get(exit.x(), exit.y());
         }
 
         adjacent = new Adjacent<>(north, east, south, west, target);
     }
 
+    /**
+     * @return whether the node is a portal whose exit was not discovered yet
+     */
+    public boolean isMissingExit() {
+        return type == PORTAL && adjacent.targetLocation() == null && scenario.TILE_MAP.getPortalExit(x, y) != null;
+    }
+
     public double getPheromoneStrength() {
-        return pheromone.getStrength();
+        return scenario.TILE_MAP.getPheromoneStrength(x, y);
     }
 
     public Adjacent<TileNode> getAdjacent() {
         return adjacent;
     }
 
-    public Pheromone getPheromone() {
-        return pheromone;
-    }
-
     public int getX() {
         return x;
     }
@@ -133,11 +126,22 @@ public class TileNode {
         return type;
     }
 
+    /**
+     * @return type of the agent on the tile the last time it was updated, null if there was none
+     */
+    public TileType getAgentType() {
+        return agentType;
+    }
+
+    public void setAgentType(TileType agentType) {
+        this.agentType = agentType;
+    }
+
     public MarkerType getExploreType() {
-        return scenario.TILE_MAP.getTile(x, y).getExploreType();
+        return scenario.TILE_MAP.getExploreType(x, y);
     }
 
     public void setExploreType(MarkerType m) {
-        scenario.TILE_MAP.getTile(x, y).setExploreType(m);
+        scenario.TILE_MAP.setExploreType(x, y, m);
     }
 }
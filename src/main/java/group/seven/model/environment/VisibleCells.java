@@ -0,0 +1,159 @@
+package group.seven.model.environment;
+
+import group.seven.logic.geometric.Cells;
+import group.seven.model.agents.Agent;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The tiles an agent currently sees, as a reusable buffer of cell ids (see {@link Cells}) that holds each tile once.
+ * Whether a tile is in it is answered in O(1) by a stamp per cell of the agent's view window, the square of
+ * 2 * VIEW_DISTANCE + 1 tiles around where the agent stood when the first tile was added: a cell is in the buffer if
+ * its stamp is the current generation, so clearing only starts a new generation. The few tiles outside the window,
+ * e.g. seen through a portal, are looked up in the buffer itself. Once the buffer has grown to the size of the
+ * agent's view, filling and clearing it allocates nothing.
+ * <p>
+ * It is also a {@link java.util.List} of the tiles, in the order they were added, for the callers that work with
+ * tiles. {@link #add(Tile)} ignores tiles that are in it already, and tiles can only be removed all at once.
+ */
+public final class VisibleCells extends AbstractList<Tile> implements RandomAccess {
+    private final Agent agent;
+    private final Scenario scenario;
+    private int[] cells = new int[32];
+    private int size = 0;
+    //generation in which each cell of the view window was added, row by row, allocated on the first add
+    private int[] stamps;
+    private int side;
+    //global coordinates of the top left corner of the window in this generation
+    private int originX, originY;
+    private int generation = 1;
+
+    /**
+     * @param agent agent whose view the buffer holds
+     */
+    public VisibleCells(Agent agent) {
+        this.agent = agent;
+        scenario = agent.scenario;
+    }
+
+    /**
+     * Adds the cell, unless it is in the buffer already
+     *
+     * @param cell cell id of a tile of the scenario's map
+     * @return whether the cell was added
+     */
+    public boolean addCell(int cell) {
+        if (size == 0) //first cell of the generation, the window follows the agent
+            center();
+        int stamp = stamp(cell);
+        if (stamp >= 0) {
+            if (stamps[stamp] == generation)
+                return false;
+            stamps[stamp] = generation;
+        } else if (indexOf(cell) >= 0) {
+            return false;
+        }
+        if (size == cells.length)
+            cells = Arrays.copyOf(cells, 2 * size);
+        cells[size++] = cell;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Adds the tile, unless it is in the buffer already
+     *
+     * @return whether the tile was added
+     */
+    @Override
+    public boolean add(Tile tile) {
+        return addCell(Cells.id(tile.getX(), tile.getY(), scenario.WIDTH + 1));
+    }
+
+    /**
+     * Adds the tiles that are not in the buffer yet, in their order
+     *
+     * @return whether any tile was added
+     */
+    @Override
+    public boolean addAll(Collection<? extends Tile> tiles) {
+        boolean added = false;
+        if (tiles instanceof List<? extends Tile> list && tiles instanceof RandomAccess) {
+            for (int i = 0; i < list.size(); i++) //no iterator to allocate
+                added |= add(list.get(i));
+        } else {
+            for (Tile tile : tiles)
+                added |= add(tile);
+        }
+        return added;
+    }
+
+    public boolean containsCell(int cell) {
+        if (size == 0)
+            return false;
+        int stamp = stamp(cell);
+        return stamp >= 0 ? stamps[stamp] == generation : indexOf(cell) >= 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Tile tile && containsCell(Cells.id(tile.getX(), tile.getY(), scenario.WIDTH + 1));
+    }
+
+    /**
+     * @return cell id of the i-th tile
+     */
+    public int getCell(int i) {
+        return cells[Objects.checkIndex(i, size)];
+    }
+
+    @Override
+    public Tile get(int i) {
+        return scenario.TILE_MAP.getTile(getCell(i));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        if (++generation == Integer.MAX_VALUE) { //stamps of old generations could be taken for the new one
+            if (stamps != null)
+                Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        modCount++;
+    }
+
+    private void center() {
+        int radius = Math.max(0, scenario.VIEW_DISTANCE);
+        if (stamps == null) {
+            side = 2 * radius + 1;
+            stamps = new int[side * side];
+        }
+        originX = agent.getX() - radius;
+        originY = agent.getY() - radius;
+    }
+
+    //index of the stamp of the cell, -1 if it is outside the view window
+    private int stamp(int cell) {
+        int width = scenario.WIDTH + 1;
+        int x = Cells.x(cell, width) - originX, y = Cells.y(cell, width) - originY;
+        return cell < 0 || x < 0 || y < 0 || x >= side || y >= side ? -1 : y * side + x;
+    }
+
+    private int indexOf(int cell) {
+        for (int i = 0; i < size; i++)
+            if (cells[i] == cell)
+                return i;
+        return -1;
+    }
+}
@@ -16,6 +16,14 @@ public class Config {
     public static AlgorithmType ALGORITHM_GUARD = AlgorithmType.RANDOM;
     public static AlgorithmType ALGORITHM_INTRUDER = AlgorithmType.A_STAR;
 
+    //whether dropped pheromones fade over time, see PheromoneField.DecayPolicy.STOCHASTIC
+    public static boolean PHEROMONE_DECAY = false;
+    //whether the agents of a team share one internal map, see KnowledgeMap
+    public static boolean SHARED_TEAM_MAPS = false;
+    //whether internal maps keep a byte per tile instead of a node per tile, and whether outside the heap
+    public static boolean PACKED_KNOWLEDGE_MAPS = false;
+    public static boolean OFF_HEAP_KNOWLEDGE_MAPS = false;
+
     public static boolean GUI_ON = true;
     public static boolean GA_ON = true;
 
@@ -9,6 +9,8 @@ public class Matrix {
     private double[][] data;
 
     /**
+     * Creates a matrix filled with zeros, to be filled in with {@link #set} or {@link #setData}
+     *
      * @param rows    the amount of rows in the matrix
      * @param columns the amount of columns in the matrix
      */
@@ -16,13 +18,6 @@ public class Matrix {
         this.rows = rows;
         this.columns = columns;
         data = new double[rows][columns];
-
-        // randomly initialize the data
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                data[i][j] = Math.random();
-            }
-        }
     }
 
     /**
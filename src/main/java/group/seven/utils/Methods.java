@@ -6,6 +6,8 @@ import javafx.scene.Node;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class Methods {
 
@@ -52,8 +54,20 @@ public class Methods {
      * @return the random number generated
      */
     public static double randomNumber(double min, double max) {
+        return randomNumber(ThreadLocalRandom.current(), min, max);
+    }
+
+    /**
+     * a function to generate random numbers from a given random stream, e.g. an agent's or a run's own stream
+     *
+     * @param random the stream to draw from
+     * @param min    lower bound for random number
+     * @param max    upper bound for random number
+     * @return the random number generated
+     */
+    public static double randomNumber(RandomGenerator random, double min, double max) {
         double interval = max - min;
-        return Math.random() * interval + min;
+        return random.nextDouble() * interval + min;
     }
     //TODO implement
 
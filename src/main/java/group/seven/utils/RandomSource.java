@@ -0,0 +1,33 @@
+package group.seven.utils;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The randomness of one simulation run. Every agent and subsystem splits its own stream off the root,
+ * so simultaneous runs share no random state, and a run can be replayed exactly from its seed
+ * (as long as the streams are split in the same order, which happens when the run is set up).
+ */
+public class RandomSource {
+    public final long seed;
+    private final SplittableRandom root;
+
+    public RandomSource(long seed) {
+        this.seed = seed;
+        root = new SplittableRandom(seed);
+    }
+
+    /**
+     * Creates a source with an arbitrary seed. Read {@link #seed} to replay the run later.
+     */
+    public RandomSource() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @return a new independent stream, to be used by a single agent or subsystem only
+     */
+    public synchronized SplittableRandom split() {
+        return root.split();
+    }
+}
@@ -0,0 +1,39 @@
+package group.seven.logic.geometric;
+
+import group.seven.enums.Cardinal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CellsTest {
+
+    @Test
+    void cellIdsRoundTrip() {
+        int width = 7;
+        int cell = Cells.id(3, 5, width);
+        assertEquals(5 * 7 + 3, cell);
+        assertEquals(3, Cells.x(cell, width));
+        assertEquals(5, Cells.y(cell, width));
+        assertEquals(new XY(3, 5), XY.fromCellId(cell, width));
+        assertEquals(cell, new XY(3, 5).cellId(width));
+    }
+
+    @Test
+    void stepsStayOnTheMap() {
+        int width = 4, height = 3;
+        assertEquals(Cells.id(1, 0, width), Cells.step(Cells.id(0, 0, width), Cardinal.EAST, width, height));
+        assertEquals(Cells.NONE, Cells.step(Cells.id(0, 0, width), Cardinal.WEST, width, height));
+        assertEquals(Cells.NONE, Cells.step(Cells.id(3, 1, width), Cardinal.EAST, width, height));
+        assertEquals(Cells.NONE, Cells.step(Cells.id(2, 2, width), Cardinal.SOUTH, width, height));
+        assertEquals(3, Cells.manhattan(Cells.id(0, 0, width), Cells.id(2, 1, width), width));
+    }
+
+    @Test
+    void packsNegativeCoordinates() {
+        long point = Cells.pack(-3, -7);
+        assertEquals(-3, Cells.packedX(point));
+        assertEquals(-7, Cells.packedY(point));
+        assertEquals(new XY(-1, -8), Cells.toXY(Cells.translate(point, 2, -1)));
+        assertEquals(new XY(4, -2), XY.fromPacked(new XY(4, -2).packed()));
+    }
+}
@@ -0,0 +1,41 @@
+package group.seven.logic.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CoverageHistoryTest {
+
+    @Test
+    void keepsSamplesInOrder() {
+        CoverageHistory history = new CoverageHistory(4);
+        history.record(1, 10, 1);
+        history.record(2, 20, 2);
+
+        assertEquals(2, history.size());
+        assertEquals(1, history.getStep(0));
+        assertEquals(20.0, history.getGuardCoverage(1));
+        assertEquals(2.0, history.getIntruderCoverage(1));
+    }
+
+    @Test
+    void overwritesOldestWhenFull() {
+        CoverageHistory history = new CoverageHistory(3);
+        for (int step = 1; step <= 5; step++)
+            history.record(step, step * 10, step);
+
+        assertEquals(3, history.size());
+        assertEquals(3, history.getStep(0));
+        assertEquals(5, history.getStep(2));
+        assertEquals(50.0, history.getGuardCoverage(2));
+    }
+
+    @Test
+    void rejectsIndexOutsideStoredSamples() {
+        CoverageHistory history = new CoverageHistory(2);
+        history.record(1, 0, 0);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> history.getStep(1));
+    }
+}
@@ -0,0 +1,57 @@
+package group.seven.logic.simulation;
+
+import group.seven.enums.AlgorithmType;
+import group.seven.model.environment.Scenario;
+import group.seven.model.environment.ScenarioBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.concurrent.ForkJoinPool;
+
+import static group.seven.enums.AlgorithmType.A_STAR;
+import static group.seven.enums.AlgorithmType.BRICK_AND_MORTAR;
+import static group.seven.enums.AlgorithmType.EVAW;
+import static group.seven.enums.AlgorithmType.RANDOM;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class DecisionPoolTest {
+
+    private Scenario build(String map, long seed, AlgorithmType guards, AlgorithmType intruders)
+            throws URISyntaxException {
+        File file = new File(getClass().getResource("/scenarios/" + map).toURI());
+        return new ScenarioBuilder(file)
+                .setSeed(seed)
+                .setAlgorithms(guards, intruders)
+                .build();
+    }
+
+    //the same seed has to give the same run, whether the agents decide one after another or on a pool
+    private void checkSameRun(String map, AlgorithmType guards, AlgorithmType intruders) throws URISyntaxException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SimulationEngine sequential = new SimulationEngine(build(map, 11, guards, intruders)).setMaxTime(200);
+            SimulationEngine parallel = new SimulationEngine(build(map, 11, guards, intruders)).setMaxTime(200)
+                    .setDecisionPool(pool);
+            for (int i = 0; i < 4; i++) {
+                sequential.stepN(50);
+                parallel.stepN(50);
+                assertArrayEquals(sequential.snapshot().toByteArray(), parallel.snapshot().toByteArray(),
+                        guards + " vs " + intruders + " after " + sequential.getCount() + " steps");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void randomAgents() throws URISyntaxException {
+        checkSameRun("small_map.txt", RANDOM, RANDOM);
+    }
+
+    @Test
+    void pheromonesAndPaths() throws URISyntaxException {
+        checkSameRun("complex_map.txt", EVAW, A_STAR);
+        checkSameRun("complex_map.txt", BRICK_AND_MORTAR, RANDOM);
+    }
+}
@@ -0,0 +1,45 @@
+package group.seven.logic.simulation;
+
+import group.seven.enums.AlgorithmType;
+import group.seven.model.environment.Scenario;
+import group.seven.model.environment.ScenarioBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SnapshotTest {
+
+    private Scenario build(String map, long seed) throws URISyntaxException {
+        File file = new File(getClass().getResource("/scenarios/" + map).toURI());
+        return new ScenarioBuilder(file)
+                .setSeed(seed)
+                .setAlgorithms(AlgorithmType.RANDOM, AlgorithmType.RANDOM)
+                .build();
+    }
+
+    @Test
+    void restoredRunHasTheSameState() throws URISyntaxException {
+        SimulationEngine engine = new SimulationEngine(build("small_map.txt", 7));
+        engine.stepN(60);
+        Snapshot snapshot = Snapshot.fromByteArray(engine.snapshot().toByteArray());
+
+        SimulationEngine fork = new SimulationEngine(build("small_map.txt", 8), snapshot);
+
+        assertEquals(engine.getCount(), fork.getCount());
+        assertEquals(engine.getStatus(), fork.getStatus());
+        assertArrayEquals(snapshot.toByteArray(), fork.snapshot().toByteArray());
+    }
+
+    @Test
+    void differentMapIsRejected() throws URISyntaxException {
+        Snapshot snapshot = new SimulationEngine(build("small_map.txt", 7)).snapshot();
+        Scenario other = build("complex_map.txt", 7);
+
+        assertThrows(IllegalArgumentException.class, () -> new SimulationEngine(other, snapshot));
+    }
+}
@@ -0,0 +1,32 @@
+package group.seven.model;
+
+import group.seven.logic.geometric.XY;
+import group.seven.model.agents.Frame;
+import group.seven.model.agents.TranslationFrame;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TranslationFrameTest {
+
+    TranslationFrame frame = new TranslationFrame(new XY(2, 4));
+
+    @Test
+    void convertsInts() {
+        assertEquals(1, frame.toLocalX(3));
+        assertEquals(-2, frame.toLocalY(2));
+        assertEquals(6, frame.toGlobalX(4));
+        assertEquals(7, frame.toGlobalY(3));
+    }
+
+    @Test
+    void matchesGeneralFrame() {
+        Frame general = frame.toFrame();
+        for (int x = -3; x <= 3; x++) {
+            for (int y = -3; y <= 3; y++) {
+                assertEquals(general.convertToLocal(x, y), frame.convertToLocal(x, y));
+                assertEquals(general.convertToGlobal(x, y), frame.convertToGlobal(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package group.seven.model.environment;
+
+import group.seven.logic.geometric.Cells;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static group.seven.enums.TileType.WALL;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrontierTest {
+
+    @Test
+    void matchesAFullScan() throws Exception {
+        File file = new File(getClass().getResource("/scenarios/complex_map.txt").toURI());
+        Scenario scenario = new ScenarioBuilder(file).build();
+        KnowledgeMap nodes = new NodeKnowledgeMap(scenario);
+        KnowledgeMap packed = new PackedKnowledgeMap(scenario, false);
+
+        //discover a growing block in a few steps, the frontier has to follow every time
+        for (int size = 3; size <= 15; size += 4) {
+            List<Tile> seen = new ArrayList<>();
+            for (int x = 20; x < 20 + size; x++)
+                for (int y = 10; y < 10 + size; y++)
+                    seen.add(scenario.TILE_MAP.getTile(x, y));
+            nodes.update(seen);
+            packed.update(seen);
+
+            int[] expected = scan(nodes);
+            assertArrayEquals(expected, sorted(nodes.getFrontier().toArray()));
+            assertArrayEquals(expected, sorted(packed.getFrontier().toArray()));
+        }
+
+        int nearest = nodes.getFrontier().nearest(0, 0);
+        assertTrue(nodes.getFrontier().isFrontier(nearest));
+        assertEquals(nearest, packed.getFrontier().nearest(0, 0));
+
+        nodes.clear();
+        assertEquals(0, nodes.getFrontier().size());
+        assertEquals(Cells.NONE, nodes.getFrontier().nearest(0, 0));
+    }
+
+    private static int[] sorted(int[] cells) {
+        Arrays.sort(cells);
+        return cells;
+    }
+
+    //known free cells with an unknown neighbour, by cell id
+    private static int[] scan(KnowledgeMap map) {
+        List<Integer> frontier = new ArrayList<>();
+        for (int x = 0; x < map.getWidth(); x++) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                if (!map.isKnown(x, y) || map.getType(x, y) == WALL)
+                    continue;
+                if (unknown(map, x, y - 1) || unknown(map, x + 1, y) || unknown(map, x, y + 1) || unknown(map, x - 1, y))
+                    frontier.add(map.cellId(x, y));
+            }
+        }
+        return sorted(frontier.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static boolean unknown(KnowledgeMap map, int x, int y) {
+        return map.isInBounds(x, y) && !map.isKnown(x, y);
+    }
+}
@@ -0,0 +1,40 @@
+package group.seven.model.environment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static group.seven.enums.MarkerType.EXPLORED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MarkerStoreTest {
+
+    @Test
+    void findsMarkersByTileAndArea() {
+        MarkerStore store = new MarkerStore(30, 20);
+        Marker a = new Marker(3, 4, EXPLORED, 0, null);
+        Marker b = new Marker(3, 4, EXPLORED, 1, null);
+        Marker c = new Marker(20, 15, EXPLORED, 2, null);
+        store.add(a);
+        store.add(b);
+        store.add(c);
+
+        assertEquals(List.of(a, b), store.getAt(3, 4));
+        assertTrue(store.getAt(4, 3).isEmpty());
+
+        List<Marker> found = new ArrayList<>();
+        store.forEachIn(0, 0, 19, 19, found::add);
+        assertEquals(List.of(a, b), found);
+        found.clear();
+        store.forEachIn(-10, -10, 100, 100, found::add);
+        assertEquals(3, found.size());
+
+        assertTrue(store.remove(a));
+        assertFalse(store.remove(a));
+        assertEquals(List.of(b), store.getAt(3, 4));
+        assertEquals(2, store.size());
+    }
+}
@@ -0,0 +1,48 @@
+package group.seven.model.environment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PackedKnowledgeMapTest {
+
+    @Test
+    void knowsTheSameAsNodes() throws Exception {
+        File file = new File(getClass().getResource("/scenarios/complex_map.txt").toURI());
+        Scenario scenario = new ScenarioBuilder(file).build();
+        List<Tile> seen = new ArrayList<>();
+        for (int x = 10; x < 40; x++)
+            for (int y = 5; y < 25; y += x % 3 + 1)
+                seen.add(scenario.TILE_MAP.getTile(x, y));
+
+        KnowledgeMap nodes = new NodeKnowledgeMap(scenario);
+        KnowledgeMap packed = new PackedKnowledgeMap(scenario, true);
+        nodes.update(seen);
+        packed.update(seen);
+
+        assertEquals(nodes.size(), packed.size());
+        for (int x = -1; x <= nodes.getWidth(); x++) {
+            for (int y = -1; y <= nodes.getHeight(); y++) {
+                assertEquals(nodes.isKnown(x, y), packed.isKnown(x, y));
+                assertEquals(nodes.getType(x, y), packed.getType(x, y));
+                TileNode expected = nodes.get(x, y), actual = packed.get(x, y);
+                if (expected == null) {
+                    assertNull(actual);
+                    continue;
+                }
+                assertEquals(packed.get(x, y), actual);
+                List<TileNode> expectedAdjacent = expected.getAdjacent().toList(), actualAdjacent = actual.getAdjacent().toList();
+                assertEquals(expectedAdjacent.size(), actualAdjacent.size());
+                for (int i = 0; i < expectedAdjacent.size(); i++) {
+                    assertEquals(expectedAdjacent.get(i).getX(), actualAdjacent.get(i).getX());
+                    assertEquals(expectedAdjacent.get(i).getY(), actualAdjacent.get(i).getY());
+                }
+            }
+        }
+    }
+}
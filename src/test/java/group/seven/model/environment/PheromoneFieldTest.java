@@ -0,0 +1,71 @@
+package group.seven.model.environment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PheromoneFieldTest {
+
+    @Test
+    void keepsStrongestPheromone() {
+        PheromoneField field = new PheromoneField();
+        field.setPolicy(PheromoneField.DecayPolicy.NONE);
+        field.raise(3, 40);
+        field.raise(3, 20);
+        field.raise(7, 60);
+
+        assertEquals(40.0, field.get(3));
+        assertEquals(60.0, field.get(7));
+        assertEquals(0.0, field.get(5));
+        assertEquals(2, field.size());
+    }
+
+    @Test
+    void decaysLazilyAndDropsFadedCells() {
+        PheromoneField field = new PheromoneField();
+        //halves every step
+        field.setPolicy((strength, cell, from, to, seed) -> strength / Math.pow(2, to - from));
+        field.setRandom(new SplittableRandom(1));
+        for (int cell = 0; cell < 100; cell++)
+            field.raise(cell, (cell + 1) / 100.0);
+
+        field.tick();
+        field.tick();
+        assertEquals(0.25, field.get(99));
+        assertEquals(0.25, field.get(99));
+
+        //reads change nothing, the faded cells are only dropped by the ticks
+        for (int i = 2; i < PheromoneField.PRUNE_INTERVAL - 1; i++)
+            field.tick();
+        for (int cell = 0; cell < 100; cell++)
+            assertEquals(0.0, field.get(cell));
+        assertEquals(100, field.size());
+        for (int i = 0; i < PheromoneField.PRUNE_INTERVAL + 1; i++)
+            field.tick();
+        assertEquals(0, field.size());
+    }
+
+    @Test
+    void stochasticDecayDoesNotDependOnReads() {
+        PheromoneField read = new PheromoneField(), unread = new PheromoneField();
+        read.setPolicy(PheromoneField.DecayPolicy.STOCHASTIC);
+        unread.setPolicy(PheromoneField.DecayPolicy.STOCHASTIC);
+        read.setRandom(new SplittableRandom(5));
+        unread.setRandom(new SplittableRandom(5));
+        for (int cell = 0; cell < 10; cell++) {
+            read.raise(cell, 50);
+            unread.raise(cell, 50);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            read.tick();
+            unread.tick();
+            for (int cell = 9; cell >= 0; cell--)
+                read.get(cell);
+        }
+        for (int cell = 0; cell < 10; cell++)
+            assertEquals(unread.get(cell), read.get(cell));
+    }
+}
@@ -0,0 +1,59 @@
+package group.seven.model.environment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SeenCellsTest {
+
+    //depending on the number of agents the cells keep words of some width or the agents keep bitsets,
+    //all must answer the same
+    private void checkQueries(int numAgents) {
+        SeenCells seen = new SeenCells(200, numAgents);
+        int last = numAgents - 1;
+        assertTrue(seen.mark(5, 0));
+        assertFalse(seen.mark(5, 0));
+        seen.mark(5, last);
+        seen.mark(6, 0);
+        seen.mark(130, last);
+
+        assertTrue(seen.isSeen(5, last));
+        assertFalse(seen.isSeen(6, last));
+        assertTrue(seen.isSeenByAny(130));
+        assertFalse(seen.isSeenByAny(7));
+        assertArrayEquals(new int[]{0, last}, seen.seenBy(5));
+        assertEquals(2, seen.count(0));
+        assertEquals(2, seen.count(last));
+        assertEquals(3, seen.countUnion(0, last));
+        assertEquals(1, seen.countIntersection(0, last));
+
+        seen.clear();
+        assertEquals(0, seen.count(0));
+        assertEquals(0, seen.countUnion(0, last));
+    }
+
+    @Test
+    void fewAgents() {
+        checkQueries(2);
+        checkQueries(5);
+        checkQueries(10);
+        checkQueries(40);
+    }
+
+    @Test
+    void wordsAtTwiceTheBits() {
+        //4 agents fill half of an 8 bit word, 3 agents less than half
+        assertTrue(new SeenCells(200, 4).hasCellWords());
+        assertFalse(new SeenCells(200, 3).hasCellWords());
+        checkQueries(3);
+        checkQueries(4);
+    }
+
+    @Test
+    void manyAgents() {
+        checkQueries(100);
+    }
+}
@@ -0,0 +1,37 @@
+package group.seven.model.environment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SeenOverlayTest {
+
+    @Test
+    void remembersWhenTilesWereSeen() throws Exception {
+        SeenOverlay overlay = new SeenOverlay(200, 100);
+        overlay.see(3, 4, 0.5);
+        overlay.see(150, 90, 1.0);
+        overlay.see(3, 4, 2.5);
+
+        assertEquals(2.5, overlay.lastSeen(3, 4));
+        assertTrue(overlay.hasSeen(150, 90));
+        assertFalse(overlay.hasSeen(4, 3));
+        assertFalse(overlay.hasSeen(-1, 300));
+        assertEquals(2, overlay.count());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        overlay.writeState(new DataOutputStream(bytes));
+        SeenOverlay copy = new SeenOverlay(200, 100);
+        copy.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(2.5, copy.lastSeen(3, 4));
+        assertEquals(1.0, copy.lastSeen(150, 90));
+        assertEquals(2, copy.count());
+    }
+}
@@ -0,0 +1,55 @@
+package group.seven.model.environment;
+
+import group.seven.enums.TileType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StaticFeaturesTest {
+
+    //# is a wall, the middle column splits the map in two regions
+    private static final String[] MAP = {
+            "#######",
+            "#..#..#",
+            "#..#..#",
+            "#######"
+    };
+
+    private StaticFeatures build() {
+        int width = MAP[0].length(), height = MAP.length;
+        ByteBuffer types = ByteBuffer.allocate(width * height);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                types.put(y * width + x, (byte) (MAP[y].charAt(x) == '#' ? TileType.WALL : TileType.EMPTY).ordinal());
+        return new StaticFeatures(width, height, types);
+    }
+
+    @Test
+    void countsWallsInRectangles() {
+        StaticFeatures features = build();
+        assertEquals(20, features.countWalls(0, 0, 6, 3));
+        assertEquals(2, features.countWalls(3, 1, 3, 2));
+        assertEquals(7, features.countWalls(-5, -5, 10, 0));
+        assertEquals(3, features.countFreeNeighbours(1, 1, 1));
+    }
+
+    @Test
+    void measuresDistanceToWalls() {
+        StaticFeatures features = build();
+        assertEquals(0, features.getWallDistance(3, 1));
+        assertEquals(1, features.getWallDistance(2, 2));
+    }
+
+    @Test
+    void labelsRegions() {
+        StaticFeatures features = build();
+        assertEquals(2, features.getNumComponents());
+        assertTrue(features.isConnected(1, 1, 2, 2));
+        assertFalse(features.isConnected(1, 1, 4, 1));
+        assertEquals(0, features.getComponent(0, 0));
+    }
+}
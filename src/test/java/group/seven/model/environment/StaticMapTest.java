@@ -0,0 +1,65 @@
+package group.seven.model.environment;
+
+import group.seven.logic.geometric.XY;
+import group.seven.logic.simulation.CollisionHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static group.seven.enums.TileType.PORTAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class StaticMapTest {
+
+    @Test
+    void binaryFormatKeepsTheMap() throws Exception {
+        File text = new File(getClass().getResource("/scenarios/complex_map.txt").toURI());
+        File binary = Files.createTempFile("complex_map", StaticMap.BINARY_EXTENSION).toFile();
+        binary.deleteOnExit();
+        StaticMap original = StaticMap.of(text);
+        original.writeBinary(binary);
+
+        StaticMap copy = StaticMap.of(binary);
+        assertEquals(original.width, copy.width);
+        assertEquals(original.height, copy.height);
+        assertEquals(original.numTiles, copy.numTiles);
+        for (int x = 0; x <= original.width; x++) {
+            for (int y = 0; y <= original.height; y++) {
+                assertEquals(original.getType(x, y), copy.getType(x, y));
+                assertEquals(original.getPortalExit(x, y), copy.getPortalExit(x, y));
+            }
+        }
+
+        Scenario fromText = new ScenarioBuilder(text).build();
+        Scenario fromBinary = new ScenarioBuilder(binary).build();
+        assertEquals(fromText.NAME, fromBinary.NAME);
+        assertEquals(fromText.NUM_AGENTS, fromBinary.NUM_AGENTS);
+        assertEquals(fromText.COMPONENTS.size(), fromBinary.COMPONENTS.size());
+        for (int i = 0; i < fromText.COMPONENTS.size(); i++) {
+            Component expected = fromText.COMPONENTS.get(i), actual = fromBinary.COMPONENTS.get(i);
+            assertEquals(expected.type(), actual.type());
+            assertEquals(expected.getXY(), actual.getXY());
+            assertEquals(expected.area().getIntWidth(), actual.area().getIntWidth());
+            assertEquals(expected.area().getIntHeight(), actual.area().getIntHeight());
+            assertEquals(expected.exit(), actual.exit());
+        }
+    }
+
+    @Test
+    void indexesComponentsOfEveryTile() throws Exception {
+        File text = new File(getClass().getResource("/scenarios/complex_map.txt").toURI());
+        StaticMap map = StaticMap.of(text);
+        Scenario scenario = new ScenarioBuilder(text).build();
+        for (int x = 0; x <= map.width; x++) {
+            for (int y = 0; y <= map.height; y++) {
+                Component component = map.componentAt(x, y);
+                if (map.getType(x, y) == PORTAL)
+                    assertSame(CollisionHandler.getComponentFromList(new XY(x, y), scenario.portals), component);
+                else if (component != null)
+                    assertEquals(map.getType(x, y), component.type());
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package group.seven.model.environment;
+
+import group.seven.logic.simulation.SimulationEngine;
+import group.seven.model.agents.Agent;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VisibleCellsTest {
+
+    @Test
+    void holdsEveryTileOnce() throws Exception {
+        File file = new File(getClass().getResource("/scenarios/complex_map.txt").toURI());
+        Scenario scenario = new ScenarioBuilder(file).build();
+        new SimulationEngine(scenario);
+        Agent agent = scenario.TILE_MAP.agents[0];
+        TileMap map = scenario.TILE_MAP;
+        int x = agent.getX(), y = agent.getY(), far = scenario.VIEW_DISTANCE + 1;
+        Tile a = map.getTile(x, y), b = map.getTile(x + 1, y), c = map.getTile(x, y + 1);
+        //outside the view window of the agent
+        Tile d = map.getTile(x < far ? x + far : x - far, y);
+
+        VisibleCells cells = new VisibleCells(agent);
+        cells.addAll(List.of(a, b, d, a, b, d));
+        assertEquals(List.of(a, b, d), cells);
+        assertEquals(a.getCellId(), cells.getCell(0));
+        assertSame(b, cells.get(1));
+        assertTrue(cells.contains(a));
+        assertTrue(cells.contains(d));
+        assertFalse(cells.contains(c));
+        assertFalse(cells.add(a));
+        assertFalse(cells.add(d));
+
+        //a new generation forgets the old tiles without touching them
+        cells.clear();
+        assertTrue(cells.isEmpty());
+        assertFalse(cells.contains(a));
+        assertFalse(cells.contains(d));
+        assertTrue(cells.add(c));
+        assertTrue(cells.add(a));
+        assertEquals(List.of(c, a), cells);
+    }
+}
@@ -0,0 +1,36 @@
+package group.seven.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class RandomSourceTest {
+
+    @Test
+    void sameSeedGivesSameStreams() {
+        RandomSource a = new RandomSource(42);
+        RandomSource b = new RandomSource(42);
+
+        for (int i = 0; i < 5; i++) {
+            SplittableRandom streamA = a.split();
+            SplittableRandom streamB = b.split();
+            for (int j = 0; j < 10; j++)
+                assertEquals(streamA.nextLong(), streamB.nextLong());
+        }
+    }
+
+    @Test
+    void splitStreamsDiffer() {
+        RandomSource source = new RandomSource(42);
+
+        assertNotEquals(source.split().nextLong(), source.split().nextLong());
+    }
+
+    @Test
+    void seedIsKept() {
+        assertEquals(7L, new RandomSource(7).seed);
+    }
+}